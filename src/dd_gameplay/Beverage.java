@@ -1,7 +1,7 @@
 package dd_gameplay;
 
 import java.awt.Color;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Beverages represent different types of alcohol drinks that appear in the game
@@ -23,6 +23,8 @@ public enum Beverage
 	 */
 	CHAMPANGE;
 	
+	private static final Beverage[] VALUES = values();
+	
 	
 	// METHODS	-----------------
 	
@@ -61,7 +63,15 @@ public enum Beverage
 	 */
 	public static Beverage getRandomBeverage()
 	{
-		Random random = new Random();
-		return values()[random.nextInt(values().length)];
+		return getRandomBeverage(GameRandom.get());
+	}
+	
+	/**
+	 * @param random The random number generator used
+	 * @return A type of beverage chosen randomly
+	 */
+	public static Beverage getRandomBeverage(SplittableRandom random)
+	{
+		return VALUES[random.nextInt(VALUES.length)];
 	}
 }
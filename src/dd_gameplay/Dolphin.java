@@ -0,0 +1,322 @@
+package dd_gameplay;
+
+import java.util.SplittableRandom;
+
+import dd_main.DDHandlerType;
+import genesis_event.Actor;
+import genesis_event.EventSelector;
+import genesis_event.HandlerRelay;
+import genesis_event.MouseEvent;
+import genesis_event.MouseEvent.MouseButtonEventScale;
+import genesis_event.MouseEvent.MouseButtonEventType;
+import genesis_event.MultiEventSelector;
+import genesis_event.StrictEventSelector;
+import genesis_util.HelpMath;
+import genesis_util.SimpleHandled;
+import genesis_util.StateOperator;
+import genesis_util.Transformation;
+import genesis_util.Vector3D;
+
+/**
+ * A dolphin lives through the whole game, swimming in glasses, jumping between them and
+ * getting stranded on the table. The dolphin's behaviour is defined by its current state.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class Dolphin extends SimpleHandled implements Actor, MouseTarget
+{
+	// ATTRIBUTES	--------------------
+	
+	// Only stranded dolphins listen to the mouse, all of them in the same way
+	private static final EventSelector<MouseEvent> MOUSE_SELECTOR = createMouseSelector();
+	
+	private DolphinData data;
+	private DolphinState state;
+	private HandlerRelay handlers;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new dolphin. The dolphin's state must be set right after the creation.
+	 * @param handlers The handlers that will handle the dolphin
+	 * @param data The dolphin's data
+	 */
+	Dolphin(HandlerRelay handlers, DolphinData data)
+	{
+		super(handlers);
+		
+		this.data = data;
+		this.handlers = handlers;
+		this.state = null;
+		
+		getHandlingOperators().setShouldBeHandledOperator(DDHandlerType.MOUSEHITTESTER, 
+				new StateOperator(false, true));
+	}
+	
+	
+	// IMPLEMENTED METHODS	------------
+	
+	@Override
+	public void act(double duration)
+	{
+		this.state.act(duration);
+	}
+	
+	@Override
+	public Transformation getTransformation()
+	{
+		return this.state.getTransformation();
+	}
+	
+	@Override
+	public void setTrasformation(Transformation t)
+	{
+		this.state.setTrasformation(t);
+	}
+	
+	@Override
+	public EventSelector<MouseEvent> getMouseEventSelector()
+	{
+		return MOUSE_SELECTOR;
+	}
+	
+	@Override
+	public boolean isInAreaOfInterest(Vector3D position)
+	{
+		return this.state.isInAreaOfInterest(position);
+	}
+	
+	@Override
+	public void onMouseEvent(MouseEvent event)
+	{
+		this.state.onMouseEvent(event);
+	}
+	
+	@Override
+	public double getHitRadius()
+	{
+		return StrandedDolphin.HIT_RADIUS;
+	}
+	
+	
+	// ACCESSORS	--------------------
+	
+	/**
+	 * @return The dolphin's data
+	 */
+	public DolphinData getData()
+	{
+		return this.data;
+	}
+	
+	/**
+	 * @return The dolphin's current state
+	 */
+	public DolphinState getState()
+	{
+		return this.state;
+	}
+	
+	/**
+	 * @return The handlers that handle the dolphin
+	 */
+	HandlerRelay getHandlers()
+	{
+		return this.handlers;
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Makes the dolphin jump from the starting point to the end point
+	 * @param start The start point of the jump
+	 * @param end The end point of the jump
+	 */
+	public void jump(Vector3D start, Vector3D end)
+	{
+		GameMetrics.record(GameMetrics.Event.JUMP);
+		setState(new JumpingDolphin(this, start, end));
+	}
+	
+	/**
+	 * Makes the dolphin jump from its current position to another glass
+	 * @param glass The glass the dolphin jumps to
+	 */
+	public void jumpTo(Glass glass)
+	{
+		jump(getTransformation().getPosition(), glass.getRandomPositionInside());
+	}
+	
+	/**
+	 * Makes the dolphin swim in the glass
+	 * @param glass The glass the dolphin swims in
+	 * @param relativePosition The position of the dolphin in relation to the glass
+	 * @param speed The speed with which the dolphin circles the glass (in pixels)
+	 */
+	void swimIn(Glass glass, Vector3D relativePosition, double speed)
+	{
+		setState(new SwimmingDolphin(this, relativePosition, speed, glass));
+	}
+	
+	/**
+	 * Makes the dolphin swim in the glass
+	 * @param glass The glass the dolphin swims in
+	 * @param angle The direction of the dolphin from the center of the glass (degrees)
+	 * @param radius The distance of the dolphin from the center of the glass
+	 * @param angularSpeed The speed with which the dolphin circles the glass (in degrees)
+	 * @param reversed Does the dolphin face against the positive rotation direction
+	 */
+	void swimIn(Glass glass, double angle, double radius, double angularSpeed, 
+			boolean reversed)
+	{
+		setState(new SwimmingDolphin(this, angle, radius, angularSpeed, reversed, glass));
+	}
+	
+	/**
+	 * Leaves the dolphin stranded on the table
+	 * @param position The dolphin's position
+	 * @param direction The dolphin's direction
+	 */
+	void strand(Vector3D position, double direction)
+	{
+		setState(new StrandedDolphin(this, position, direction));
+	}
+	
+	/**
+	 * Removes the dolphin from the game
+	 */
+	void removeFromGame()
+	{
+		if (getIsDeadStateOperator().getState())
+			return;
+		
+		if (this.state != null)
+			this.state.leave();
+		GameMetrics.recordStateChange(this.state, null);
+		
+		MouseHitTester hitTester = getHitTester();
+		if (hitTester != null)
+			hitTester.removeFromIndex(this);
+		
+		getIsDeadStateOperator().setState(true);
+	}
+	
+	/**
+	 * Changes the dolphin's state
+	 * @param state The dolphin's new state
+	 */
+	void setState(DolphinState state)
+	{
+		if (this.state != null)
+			this.state.leave();
+		GameMetrics.recordStateChange(this.state, state);
+		this.state = state;
+		
+		boolean stranded = state instanceof StrandedDolphin;
+		getHandlingOperators().getShouldBeHandledOperator( 
+				DDHandlerType.MOUSEHITTESTER).setState(stranded);
+		
+		// Only the stranded dolphins can be found with the mouse
+		MouseHitTester hitTester = getHitTester();
+		if (hitTester != null)
+		{
+			if (stranded)
+				hitTester.updatePosition(this);
+			else
+				hitTester.removeFromIndex(this);
+		}
+	}
+	
+	private MouseHitTester getHitTester()
+	{
+		return (MouseHitTester) this.handlers.getHandler(DDHandlerType.MOUSEHITTESTER);
+	}
+	
+	/**
+	 * Makes the dolphin act so that no other object is affected. This can be done 
+	 * concurrently for different dolphins. Swimming dolphins are moved by their glass 
+	 * instead. The step must be completed by calling {@link #finishStep(LandingBatch)} 
+	 * afterwards, which also removes the stranded dolphins that died.
+	 * @param duration How long the dolphin acts (in steps)
+	 */
+	public void actLocally(double duration)
+	{
+		if (this.state instanceof JumpingDolphin)
+			((JumpingDolphin) this.state).fly(duration);
+		else if (this.state instanceof StrandedDolphin)
+			((StrandedDolphin) this.state).suffer(duration);
+	}
+	
+	/**
+	 * Applies the effects the dolphin's last step has on other objects, like landing to a 
+	 * glass or dying. This mustn't be called concurrently.
+	 * @param landings The batch the landing is added to. Null if the dolphin should land 
+	 * right away.
+	 */
+	public void finishStep(LandingBatch landings)
+	{
+		if (this.state instanceof JumpingDolphin)
+		{
+			JumpingDolphin jumper = (JumpingDolphin) this.state;
+			if (jumper.hasHitTheGround())
+			{
+				if (landings == null)
+					jumper.land();
+				else
+					landings.add(jumper);
+			}
+		}
+		else if (this.state instanceof StrandedDolphin)
+		{
+			StrandedDolphin stranded = (StrandedDolphin) this.state;
+			if (stranded.hasDied())
+				stranded.die();
+		}
+	}
+	
+	private static EventSelector<MouseEvent> createMouseSelector()
+	{
+		MultiEventSelector<MouseEvent> downAndReleased = new MultiEventSelector<>();
+		StrictEventSelector<MouseEvent, MouseEvent.Feature> localMouseDown = 
+				MouseEvent.createButtonEventTypeSelector(MouseButtonEventType.DOWN);
+		localMouseDown.addRequiredFeature(MouseButtonEventScale.LOCAL);
+		downAndReleased.addOption(localMouseDown);
+		downAndReleased.addOption(MouseEvent.createButtonEventTypeSelector( 
+				MouseButtonEventType.RELEASED));
+		
+		return downAndReleased;
+	}
+	
+	/**
+	 * This method creates a random dolphin inside the given glass
+	 * @param glass The glass the dolphin will be put into
+	 * @return The dolphin that was created
+	 */
+	public static Dolphin createDolphin(Glass glass)
+	{
+		SplittableRandom random = glass.getRandom();
+		DolphinData data = new DolphinData(Beverage.getRandomBeverage(random));
+		Vector3D relativePos = HelpMath.lenDir(10 + random.nextInt(glass.getContentRadius() - 
+				10), random.nextInt(360));
+		
+		return glass.addDolphin(data, relativePos, 2 + random.nextDouble() * 4);
+	}
+	
+	/**
+	 * Creates a new dolphin that is jumping from the starting point to the end point
+	 * @param handlers The handlers that will handle the dolphin
+	 * @param data The dolphin's data
+	 * @param start The start point of the jump
+	 * @param end The end point of the jump
+	 * @return The dolphin that was created
+	 */
+	public static Dolphin createJumpingDolphin(HandlerRelay handlers, DolphinData data, 
+			Vector3D start, Vector3D end)
+	{
+		Dolphin dolphin = new Dolphin(handlers, data);
+		dolphin.jump(start, end);
+		return dolphin;
+	}
+}
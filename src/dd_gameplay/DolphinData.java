@@ -24,10 +24,21 @@ public class DolphinData
 	 * @param drinkType The type of drink this dolphin drinks
 	 */
 	public DolphinData(Beverage drinkType)
+	{
+		this(drinkType, 0, 100);
+	}
+	
+	/**
+	 * Creates a new set of dolphin data
+	 * @param drinkType The type of drink this dolphin drinks
+	 * @param drunkness How drunk the dolphin is
+	 * @param health How much health the dolphin has [0, 100]
+	 */
+	public DolphinData(Beverage drinkType, int drunkness, double health)
 	{
 		this.drinkType = drinkType;
-		this.drunkness = 0;
-		this.health = 100;
+		this.drunkness = drunkness;
+		this.health = health;
 	}
 	
 	
@@ -86,17 +97,47 @@ public class DolphinData
 	 * @return The color used for drawing the dolphin
 	 */
 	public Color getColor()
+	{
+		return getColor(this.drinkType, this.drunkness);
+	}
+	
+	/**
+	 * Draws a box representing the dolphin
+	 * @param g2d The graphics object that does the drawing
+	 */
+	public void draw(Graphics2D g2d)
+	{
+		DolphinSprites.draw(g2d, this.drinkType, this.drunkness);
+	}
+	
+	/**
+	 * Calculates the dolphin's initiative for the given drink
+	 * @param drink The type of drink that should be drank
+	 * @return How high initiative the dolphin has for drinking
+	 */
+	public int getInitiativeToDrink(Beverage drink)
+	{
+		return getInitiativeToDrink(this.drinkType, this.drunkness, drink);
+	}
+	
+	/**
+	 * Finds the color used for drawing a dolphin
+	 * @param drinkType The type of drink the dolphin drinks
+	 * @param drunkness How drunk the dolphin is
+	 * @return The color used for drawing the dolphin
+	 */
+	public static Color getColor(Beverage drinkType, int drunkness)
 	{
 		Color color = null;
 		
-		switch (this.drinkType)
+		switch (drinkType)
 		{
 			case BEER: color = Color.ORANGE; break;
 			case WHISKEY: color = Color.CYAN; break;
 			case CHAMPANGE: color = Color.RED; break;
 		}
 		
-		for (int i = 10; i < this.drunkness; i += 10)
+		for (int i = 10; i < drunkness; i += 10)
 		{
 			color = color.darker();
 		}
@@ -105,28 +146,31 @@ public class DolphinData
 	}
 	
 	/**
-	 * Draws a box representing the dolphin
+	 * Draws a box representing a dolphin
 	 * @param g2d The graphics object that does the drawing
+	 * @param color The color of the dolphin
 	 */
-	public void draw(Graphics2D g2d)
+	public static void draw(Graphics2D g2d, Color color)
 	{
-		g2d.setColor(getColor());
+		g2d.setColor(color);
 		g2d.fillRect(-20, -10, 40, 20);
 		g2d.setColor(Color.BLACK);
 		g2d.drawRect(-20, -10, 40, 20);
 	}
 	
 	/**
-	 * Calculates the dolphin's initiative for the given drink
+	 * Calculates a dolphin's initiative for the given drink
+	 * @param drinkType The type of drink the dolphin drinks
+	 * @param drunkness How drunk the dolphin is
 	 * @param drink The type of drink that should be drank
 	 * @return How high initiative the dolphin has for drinking
 	 */
-	public int getInitiativeToDrink(Beverage drink)
+	public static int getInitiativeToDrink(Beverage drinkType, int drunkness, Beverage drink)
 	{
-		int initiative = getDrinkType().getInitiative();
-		if (drink == getDrinkType())
+		int initiative = drinkType.getInitiative();
+		if (drink == drinkType)
 			initiative += 10000;
-		initiative -= this.drunkness;
+		initiative -= drunkness;
 		
 		return initiative;
 	}
@@ -0,0 +1,152 @@
+package dd_gameplay;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DolphinSprites keeps a cache of pre-rendered dolphin images so that the dolphins can be 
+ * drawn simply by copying an image. The sprites are tinted based on the dolphin's 
+ * beverage and drunkness.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class DolphinSprites
+{
+	// ATTRIBUTES	--------------------
+	
+	/**
+	 * The amount of drunkness that darkens the dolphin's color one step
+	 */
+	public static final int DRUNKNESS_BUCKET_SIZE = 10;
+	/**
+	 * After this many darkening steps the dolphin is completely black, so no further 
+	 * buckets are needed
+	 */
+	public static final int MAX_DRUNKNESS_BUCKET = 20;
+	/**
+	 * The x-coordinate of the sprite's top left corner in relation to the dolphin's origin
+	 */
+	public static final int ORIGIN_X = -20;
+	/**
+	 * The y-coordinate of the sprite's top left corner in relation to the dolphin's origin
+	 */
+	public static final int ORIGIN_Y = -10;
+	
+	private static final int MAX_SPRITES = 64;
+	private static final Beverage[] BEVERAGES = Beverage.values();
+	
+	private static Map<Integer, BufferedImage> sprites = 
+			new LinkedHashMap<Integer, BufferedImage>(16, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest)
+		{
+			return size() > MAX_SPRITES;
+		}
+	};
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	private DolphinSprites()
+	{
+		// The interface is static
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Finds the drunkness bucket a dolphin belongs to. Dolphins in the same bucket are 
+	 * drawn with the same color.
+	 * @param drunkness How drunk the dolphin is
+	 * @return The dolphin's drunkness bucket
+	 */
+	public static int getDrunknessBucket(int drunkness)
+	{
+		if (drunkness <= DRUNKNESS_BUCKET_SIZE)
+			return 0;
+		return Math.min(MAX_DRUNKNESS_BUCKET, (drunkness - 1) / DRUNKNESS_BUCKET_SIZE);
+	}
+	
+	/**
+	 * @return How many different sprites there can be
+	 */
+	public static int getSpriteCount()
+	{
+		return (MAX_DRUNKNESS_BUCKET + 1) * BEVERAGES.length;
+	}
+	
+	/**
+	 * Finds the index of the sprite that represents a dolphin
+	 * @param drinkType The type of drink the dolphin drinks
+	 * @param drunkness How drunk the dolphin is
+	 * @return The index of the dolphin's sprite [0, getSpriteCount()[
+	 */
+	public static int getSpriteIndex(Beverage drinkType, int drunkness)
+	{
+		return getDrunknessBucket(drunkness) * BEVERAGES.length + drinkType.ordinal();
+	}
+	
+	/**
+	 * Finds the image that represents a dolphin
+	 * @param drinkType The type of drink the dolphin drinks
+	 * @param drunkness How drunk the dolphin is
+	 * @return An image of the dolphin. The image should be drawn to (ORIGIN_X, ORIGIN_Y) 
+	 * in the dolphin's coordinate system.
+	 */
+	public static BufferedImage getSprite(Beverage drinkType, int drunkness)
+	{
+		return getSprite(getSpriteIndex(drinkType, drunkness));
+	}
+	
+	/**
+	 * Finds a sprite with the given index
+	 * @param spriteIndex The index of the sprite
+	 * @return The sprite with the given index
+	 * @see #getSpriteIndex(Beverage, int)
+	 */
+	public static synchronized BufferedImage getSprite(int spriteIndex)
+	{
+		Integer key = spriteIndex;
+		BufferedImage sprite = sprites.get(key);
+		if (sprite == null)
+		{
+			sprite = createSprite(BEVERAGES[spriteIndex % BEVERAGES.length], 
+					spriteIndex / BEVERAGES.length);
+			sprites.put(key, sprite);
+		}
+		
+		return sprite;
+	}
+	
+	/**
+	 * Draws a dolphin by copying its sprite. The graphics object should already be 
+	 * transformed to the dolphin's coordinate system.
+	 * @param g2d The graphics object that does the drawing
+	 * @param drinkType The type of drink the dolphin drinks
+	 * @param drunkness How drunk the dolphin is
+	 */
+	public static void draw(Graphics2D g2d, Beverage drinkType, int drunkness)
+	{
+		g2d.drawImage(getSprite(drinkType, drunkness), ORIGIN_X, ORIGIN_Y, null);
+	}
+	
+	private static BufferedImage createSprite(Beverage drinkType, int bucket)
+	{
+		// The outline takes one extra pixel
+		BufferedImage sprite = new BufferedImage(-ORIGIN_X * 2 + 1, -ORIGIN_Y * 2 + 1, 
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2d = sprite.createGraphics();
+		g2d.translate(-ORIGIN_X, -ORIGIN_Y);
+		DolphinData.draw(g2d, DolphinData.getColor(drinkType, 
+				bucket * DRUNKNESS_BUCKET_SIZE + 1));
+		g2d.dispose();
+		
+		return sprite;
+	}
+}
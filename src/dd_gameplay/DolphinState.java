@@ -0,0 +1,49 @@
+package dd_gameplay;
+
+import genesis_event.MouseEvent;
+import genesis_util.Transformation;
+import genesis_util.Vector3D;
+
+/**
+ * DolphinStates define how a dolphin behaves at a certain point of its life. A dolphin
+ * swims, jumps or lies stranded, switching from one state to another.
+ * @author agent
+ * @since 18.10.2026
+ */
+public interface DolphinState
+{
+	/**
+	 * Updates the state
+	 * @param duration How long the dolphin acts (in steps)
+	 */
+	public void act(double duration);
+	
+	/**
+	 * @return The dolphin's absolute transformation
+	 */
+	public Transformation getTransformation();
+	
+	/**
+	 * Changes the dolphin's absolute transformation
+	 * @param t The dolphin's new transformation
+	 */
+	public void setTrasformation(Transformation t);
+	
+	/**
+	 * Checks whether the mouse is over the dolphin in a way that interests it
+	 * @param position The position of the mouse
+	 * @return Should the dolphin be informed about mouse events at that position
+	 */
+	public boolean isInAreaOfInterest(Vector3D position);
+	
+	/**
+	 * Informs the state about a mouse event targeting the dolphin
+	 * @param event The mouse event
+	 */
+	public void onMouseEvent(MouseEvent event);
+	
+	/**
+	 * This method is called when the dolphin moves on to another state
+	 */
+	public void leave();
+}
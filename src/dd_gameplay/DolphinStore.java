@@ -0,0 +1,337 @@
+package dd_gameplay;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import genesis_util.HelpMath;
+import genesis_util.Transformation;
+
+/**
+ * DolphinStore holds the movement of the swimming dolphins of a single glass in primitive 
+ * arrays instead of the dolphins' own states. The dolphins are updated in tight loops, 
+ * which makes crowded glasses a lot cheaper to simulate. The dolphins themselves stay in 
+ * the game: each row refers to the swimming state of a dolphin, and the state reads its 
+ * position from the row until the dolphin leaves the glass.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class DolphinStore
+{
+	// ATTRIBUTES	--------------------
+	
+	private static final Beverage[] BEVERAGES = Beverage.values();
+	
+	private Glass glass;
+	
+	private int size;
+	private SwimmingDolphin[] swimmers;
+	private double[] angles, radii, speeds;
+	private int[] drunkness;
+	private byte[] beverages;
+	private boolean[] reversed;
+	private DrunknessHeap[] drunknessHeaps;
+	private int[] drinkers;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new empty store
+	 * @param glass The glass the dolphins swim in
+	 */
+	public DolphinStore(Glass glass)
+	{
+		this.glass = glass;
+		
+		this.size = 0;
+		this.swimmers = new SwimmingDolphin[16];
+		this.angles = new double[16];
+		this.radii = new double[16];
+		this.speeds = new double[16];
+		this.drunkness = new int[16];
+		this.beverages = new byte[16];
+		this.reversed = new boolean[16];
+		this.drunknessHeaps = DrunknessHeap.createBeverageHeaps();
+	}
+	
+	
+	// ACCESSORS	--------------------
+	
+	/**
+	 * @return How many dolphins there are in the store
+	 */
+	public int size()
+	{
+		return this.size;
+	}
+	
+	/**
+	 * @param index The index of a dolphin in the store
+	 * @return The swimming state of the dolphin
+	 */
+	public SwimmingDolphin getSwimmer(int index)
+	{
+		return this.swimmers[index];
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Adds a new dolphin to the store. The dolphin's swimming state is told its index in 
+	 * the store.
+	 * @param swimmer The swimming state of the dolphin
+	 * @param angle The direction of the dolphin from the center of the glass (degrees)
+	 * @param radius The distance of the dolphin from the center of the glass
+	 * @param angularSpeed How fast the dolphin circles the glass (degrees)
+	 * @param reversed Does the dolphin face against the positive rotation direction
+	 */
+	void add(SwimmingDolphin swimmer, double angle, double radius, double angularSpeed, 
+			boolean reversed)
+	{
+		if (this.size == this.angles.length)
+			grow();
+		
+		int i = this.size;
+		DolphinData data = swimmer.getData();
+		this.swimmers[i] = swimmer;
+		this.angles[i] = angle;
+		this.radii[i] = this.glass.toSwimmingRadius(radius);
+		this.speeds[i] = angularSpeed;
+		this.drunkness[i] = data.getDrunkness();
+		this.beverages[i] = (byte) data.getDrinkType().ordinal();
+		this.reversed[i] = reversed;
+		this.drunknessHeaps[this.beverages[i]].add(i, this.drunkness[i]);
+		swimmer.setHandlerIndex(i);
+		
+		this.size ++;
+	}
+	
+	/**
+	 * Writes all the dolphins in the store in the world snapshot format
+	 * @param buffer The buffer the dolphins are written to
+	 * @see WorldSnapshot
+	 */
+	public void writeTo(ByteBuffer buffer)
+	{
+		for (int i = 0; i < this.size; i++)
+		{
+			WorldSnapshot.writeData(buffer, this.swimmers[i].getData());
+			writeTo(i, buffer);
+		}
+	}
+	
+	/**
+	 * Moves all the dolphins in the store
+	 * @param duration How long the dolphins move (in steps)
+	 */
+	public void act(double duration)
+	{
+		double[] angles = this.angles;
+		double[] speeds = this.speeds;
+		
+		for (int i = 0; i < this.size; i++)
+		{
+			angles[i] += speeds[i] * duration;
+			if (angles[i] >= 360)
+				angles[i] -= 360;
+			else if (angles[i] < 0)
+				angles[i] += 360;
+			
+			if (speeds[i] > 8)
+				speeds[i] -= 0.3 * duration;
+			else if (speeds[i] < 2)
+				speeds[i] += 0.3 * duration;
+		}
+	}
+	
+	/**
+	 * Makes the dolphins that like the glass' beverage drink, one pixel each. The glass 
+	 * itself is not affected, the caller should remove the drunk amount from it.
+	 * @param maxAmount How many dolphins can drink at most before the glass is empty
+	 * @return How many dolphins drank
+	 */
+	public int drink(int maxAmount)
+	{
+		// Only the dolphins that like the beverage are visited
+		int beverage = this.glass.getBeverage().ordinal();
+		DrunknessHeap heap = this.drunknessHeaps[beverage];
+		int amount = Math.min(maxAmount, heap.size());
+		this.drinkers = heap.copyIds(this.drinkers);
+		
+		for (int k = 0; k < amount; k++)
+		{
+			int i = this.drinkers[k];
+			DolphinData data = this.swimmers[i].getData();
+			data.increaseDrunkness(1);
+			this.drunkness[i] = data.getDrunkness();
+			heap.update(i, this.drunkness[i]);
+		}
+		
+		return amount;
+	}
+	
+	/**
+	 * Finds the dolphin that has the highest initiative for drinking the given beverage
+	 * @param target The beverage the dolphin would drink
+	 * @return The index of the dolphin with the highest initiative. -1 if the store is
+	 * empty.
+	 */
+	public int findBest(Beverage target)
+	{
+		int bestHeap = DrunknessHeap.findBestHeap(this.drunknessHeaps, target);
+		if (bestHeap < 0)
+			return -1;
+		return this.drunknessHeaps[bestHeap].peek();
+	}
+	
+	/**
+	 * Calculates a dolphin's initiative for drinking the given beverage
+	 * @param index The index of the dolphin
+	 * @param target The beverage the dolphin would drink
+	 * @return How high initiative the dolphin has for drinking
+	 */
+	public int getInitiativeToDrink(int index, Beverage target)
+	{
+		return DolphinData.getInitiativeToDrink(BEVERAGES[this.beverages[index]], 
+				this.drunkness[index], target);
+	}
+	
+	/**
+	 * @param index The index of the dolphin
+	 * @return The dolphin's transformation in relation to the glass
+	 */
+	public Transformation getRelativeTransformation(int index)
+	{
+		double angle = this.angles[index];
+		return new Transformation(HelpMath.lenDir(getRadius(index), angle)).withAngle( 
+				angle + (this.reversed[index] ? -90 : 90));
+	}
+	
+	/**
+	 * @param index The index of the dolphin
+	 * @return The dolphin's distance from the center of the glass
+	 */
+	public double getRadius(int index)
+	{
+		// The radii are stored relative to the glass' fill
+		return this.radii[index] * this.glass.getSwimmingScale();
+	}
+	
+	/**
+	 * Moves a dolphin to a new position in the glass. The dolphin keeps swimming from there.
+	 * @param index The index of the dolphin
+	 * @param angle The direction of the dolphin from the center of the glass (degrees)
+	 * @param radius The distance of the dolphin from the center of the glass
+	 */
+	void setPosition(int index, double angle, double radius)
+	{
+		this.angles[index] = angle;
+		this.radii[index] = this.glass.toSwimmingRadius(radius);
+	}
+	
+	/**
+	 * Writes a dolphin's position and movement in the world snapshot format
+	 * @param index The index of the dolphin
+	 * @param buffer The buffer the values are written to
+	 * @see WorldSnapshot
+	 */
+	void writeTo(int index, ByteBuffer buffer)
+	{
+		// The snapshot holds the actual distances
+		buffer.putDouble(this.angles[index]);
+		buffer.putDouble(getRadius(index));
+		buffer.putDouble(this.speeds[index]);
+		buffer.put((byte) (this.reversed[index] ? 1 : 0));
+	}
+	
+	/**
+	 * Removes a dolphin from the store. The last dolphin in the store will take its index.
+	 * @param index The index of the dolphin that is removed
+	 */
+	void remove(int index)
+	{
+		int last = this.size - 1;
+		this.drunknessHeaps[this.beverages[index]].remove(index);
+		this.swimmers[index].setHandlerIndex(-1);
+		if (index != last)
+		{
+			this.drunknessHeaps[this.beverages[last]].changeId(last, index);
+			this.swimmers[index] = this.swimmers[last];
+			this.swimmers[index].setHandlerIndex(index);
+			this.angles[index] = this.angles[last];
+			this.radii[index] = this.radii[last];
+			this.speeds[index] = this.speeds[last];
+			this.drunkness[index] = this.drunkness[last];
+			this.beverages[index] = this.beverages[last];
+			this.reversed[index] = this.reversed[last];
+		}
+		
+		this.swimmers[last] = null;
+		this.size --;
+	}
+	
+	/**
+	 * Records all the dolphins in the store to a render snapshot
+	 * @param snapshot The snapshot the dolphins are recorded to
+	 * @param glassTransformation The transformation of the glass
+	 */
+	public void addTo(RenderSnapshot snapshot, Transformation glassTransformation)
+	{
+		for (int i = 0; i < this.size; i++)
+		{
+			snapshot.addDolphin(this.swimmers[i].getDolphin(), glassTransformation, 
+					getRelativeTransformation(i), DolphinSprites.getSpriteIndex( 
+					BEVERAGES[this.beverages[i]], this.drunkness[i]), false);
+		}
+	}
+	
+	/**
+	 * Records the dolphins in the store to a render snapshot as a crowd. Only the share of 
+	 * each beverage is recorded, along with the dolphins near the focus points.
+	 * @param snapshot The snapshot the dolphins are recorded to
+	 * @param glassTransformation The transformation of the glass
+	 * @param focus The focus points in the glass' coordinate system
+	 */
+	public void addCrowdTo(RenderSnapshot snapshot, Transformation glassTransformation, 
+			LevelOfDetail focus)
+	{
+		for (int beverage = 0; beverage < this.drunknessHeaps.length; beverage++)
+		{
+			snapshot.addCrowdShare(beverage, this.drunknessHeaps[beverage].size());
+		}
+		
+		double scale = this.glass.getSwimmingScale();
+		for (int i = 0; i < this.size; i++)
+		{
+			if (focus.isNearFocus(this.radii[i] * scale, this.angles[i]))
+				snapshot.addDolphin(this.swimmers[i].getDolphin(), glassTransformation, 
+						getRelativeTransformation(i), DolphinSprites.getSpriteIndex( 
+						BEVERAGES[this.beverages[i]], this.drunkness[i]), false);
+		}
+	}
+	
+	/**
+	 * Makes sure that the store can hold more dolphins without growing in between
+	 * @param amount How many dolphins will be added to the store
+	 */
+	public void ensureCapacity(int amount)
+	{
+		while (this.angles.length < this.size + amount)
+		{
+			grow();
+		}
+	}
+	
+	private void grow()
+	{
+		int capacity = this.angles.length * 2;
+		this.swimmers = Arrays.copyOf(this.swimmers, capacity);
+		this.angles = Arrays.copyOf(this.angles, capacity);
+		this.radii = Arrays.copyOf(this.radii, capacity);
+		this.speeds = Arrays.copyOf(this.speeds, capacity);
+		this.drunkness = Arrays.copyOf(this.drunkness, capacity);
+		this.beverages = Arrays.copyOf(this.beverages, capacity);
+		this.reversed = Arrays.copyOf(this.reversed, capacity);
+	}
+}
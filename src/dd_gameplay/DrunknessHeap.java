@@ -0,0 +1,311 @@
+package dd_gameplay;
+
+import java.util.Arrays;
+
+/**
+ * DrunknessHeap keeps a set of dolphins ordered by their drunkness so that the least drunk
+ * dolphin can always be found immediately. Since all dolphins that drink the same beverage
+ * have the same base initiative, the least drunk of them is also the one with the highest
+ * initiative. The dolphins are identified by small integer ids, which can be changed when
+ * the dolphins are moved around in their container.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class DrunknessHeap
+{
+	// ATTRIBUTES	--------------------
+	
+	private int size;
+	private int[] ids, keys, positions;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new empty heap
+	 */
+	public DrunknessHeap()
+	{
+		this.size = 0;
+		this.ids = new int[16];
+		this.keys = new int[16];
+		this.positions = new int[16];
+		Arrays.fill(this.positions, -1);
+	}
+	
+	
+	// ACCESSORS	--------------------
+	
+	/**
+	 * @return How many dolphins there are in the heap
+	 */
+	public int size()
+	{
+		return this.size;
+	}
+	
+	/**
+	 * @return Is the heap empty
+	 */
+	public boolean isEmpty()
+	{
+		return this.size == 0;
+	}
+	
+	/**
+	 * @return The id of the least drunk dolphin in the heap. -1 if the heap is empty.
+	 */
+	public int peek()
+	{
+		if (isEmpty())
+			return -1;
+		return this.ids[0];
+	}
+	
+	/**
+	 * @return The drunkness of the least drunk dolphin in the heap. 0 if the heap is empty.
+	 */
+	public int peekDrunkness()
+	{
+		if (isEmpty())
+			return 0;
+		return this.keys[0];
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Makes sure that the heap can hold more dolphins without growing in between. The 
+	 * new dolphins are expected to take the ids right after the current ones.
+	 * @param amount How many dolphins will be added to the heap
+	 */
+	public void ensureCapacity(int amount)
+	{
+		int capacity = this.size + amount;
+		if (this.ids.length < capacity)
+		{
+			this.ids = Arrays.copyOf(this.ids, capacity);
+			this.keys = Arrays.copyOf(this.keys, capacity);
+		}
+		ensureIdCapacity(capacity - 1);
+	}
+	
+	/**
+	 * Copies the ids of all the dolphins in the heap. The ids are in no particular order.
+	 * @param buffer An array the ids are copied into. A new array is created if this one
+	 * is too small.
+	 * @return An array that contains the ids in its first size() indices
+	 */
+	public int[] copyIds(int[] buffer)
+	{
+		if (buffer == null || buffer.length < this.size)
+			buffer = new int[this.ids.length];
+		System.arraycopy(this.ids, 0, buffer, 0, this.size);
+		return buffer;
+	}
+	
+	/**
+	 * Checks whether a dolphin is in the heap
+	 * @param id The id of the dolphin
+	 * @return Is the dolphin in the heap
+	 */
+	public boolean contains(int id)
+	{
+		return id >= 0 && id < this.positions.length && this.positions[id] >= 0;
+	}
+	
+	/**
+	 * Adds a dolphin to the heap
+	 * @param id The id of the dolphin. Mustn't be in the heap already.
+	 * @param drunkness How drunk the dolphin is
+	 */
+	public void add(int id, int drunkness)
+	{
+		if (this.size == this.ids.length)
+		{
+			this.ids = Arrays.copyOf(this.ids, this.size * 2);
+			this.keys = Arrays.copyOf(this.keys, this.size * 2);
+		}
+		ensureIdCapacity(id);
+		
+		int position = this.size;
+		this.size ++;
+		place(id, drunkness, position);
+		siftUp(position);
+	}
+	
+	/**
+	 * Informs the heap that a dolphin's drunkness has changed
+	 * @param id The id of the dolphin
+	 * @param drunkness How drunk the dolphin is now
+	 */
+	public void update(int id, int drunkness)
+	{
+		if (!contains(id))
+			return;
+		
+		int position = this.positions[id];
+		int lastDrunkness = this.keys[position];
+		this.keys[position] = drunkness;
+		
+		if (drunkness < lastDrunkness)
+			siftUp(position);
+		else if (drunkness > lastDrunkness)
+			siftDown(position);
+	}
+	
+	/**
+	 * Removes a dolphin from the heap
+	 * @param id The id of the dolphin
+	 */
+	public void remove(int id)
+	{
+		if (!contains(id))
+			return;
+		
+		int position = this.positions[id];
+		this.positions[id] = -1;
+		this.size --;
+		
+		// The last dolphin takes the removed dolphin's place
+		if (position != this.size)
+		{
+			place(this.ids[this.size], this.keys[this.size], position);
+			siftDown(position);
+			siftUp(position);
+		}
+	}
+	
+	/**
+	 * Changes the id of a dolphin in the heap
+	 * @param oldId The dolphin's current id
+	 * @param newId The dolphin's new id. Mustn't be in use already.
+	 */
+	public void changeId(int oldId, int newId)
+	{
+		if (!contains(oldId))
+			return;
+		
+		ensureIdCapacity(newId);
+		int position = this.positions[oldId];
+		this.positions[oldId] = -1;
+		this.positions[newId] = position;
+		this.ids[position] = newId;
+	}
+	
+	/**
+	 * Creates a set of heaps, one for each beverage
+	 * @return A heap for each beverage, indexed by the beverages' ordinals
+	 */
+	public static DrunknessHeap[] createBeverageHeaps()
+	{
+		DrunknessHeap[] heaps = new DrunknessHeap[Beverage.values().length];
+		for (int i = 0; i < heaps.length; i++)
+		{
+			heaps[i] = new DrunknessHeap();
+		}
+		return heaps;
+	}
+	
+	/**
+	 * Finds the beverage group that contains the dolphin with the highest initiative for
+	 * drinking the given beverage
+	 * @param heaps A heap for each beverage, indexed by the beverages' ordinals
+	 * @param target The beverage the dolphin would drink
+	 * @return The ordinal of the beverage whose heap has the best dolphin at its top. -1 if
+	 * all the heaps are empty.
+	 */
+	public static int findBestHeap(DrunknessHeap[] heaps, Beverage target)
+	{
+		Beverage[] beverages = Beverage.values();
+		int best = -1;
+		int bestInitiative = 0;
+		
+		for (int i = 0; i < heaps.length; i++)
+		{
+			if (heaps[i].isEmpty())
+				continue;
+			
+			int initiative = getBestInitiative(heaps[i], beverages[i], target);
+			if (best < 0 || initiative > bestInitiative)
+			{
+				best = i;
+				bestInitiative = initiative;
+			}
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * Calculates the initiative of the least drunk dolphin in a heap
+	 * @param heap The heap that contains the dolphins that drink the given beverage
+	 * @param drinkType The beverage the dolphins in the heap drink
+	 * @param target The beverage the dolphin would drink
+	 * @return The initiative of the dolphin at the top of the heap
+	 */
+	public static int getBestInitiative(DrunknessHeap heap, Beverage drinkType, 
+			Beverage target)
+	{
+		return DolphinData.getInitiativeToDrink(drinkType, heap.peekDrunkness(), target);
+	}
+	
+	private void siftUp(int position)
+	{
+		while (position > 0)
+		{
+			int parent = (position - 1) / 2;
+			if (this.keys[parent] <= this.keys[position])
+				break;
+			
+			swap(position, parent);
+			position = parent;
+		}
+	}
+	
+	private void siftDown(int position)
+	{
+		while (true)
+		{
+			int smallest = position;
+			int left = position * 2 + 1;
+			int right = left + 1;
+			
+			if (left < this.size && this.keys[left] < this.keys[smallest])
+				smallest = left;
+			if (right < this.size && this.keys[right] < this.keys[smallest])
+				smallest = right;
+			if (smallest == position)
+				break;
+			
+			swap(position, smallest);
+			position = smallest;
+		}
+	}
+	
+	private void swap(int a, int b)
+	{
+		int id = this.ids[a];
+		int key = this.keys[a];
+		place(this.ids[b], this.keys[b], a);
+		place(id, key, b);
+	}
+	
+	private void place(int id, int drunkness, int position)
+	{
+		this.ids[position] = id;
+		this.keys[position] = drunkness;
+		this.positions[id] = position;
+	}
+	
+	private void ensureIdCapacity(int id)
+	{
+		if (id < this.positions.length)
+			return;
+		
+		int oldLength = this.positions.length;
+		this.positions = Arrays.copyOf(this.positions, Math.max(id + 1, oldLength * 2));
+		Arrays.fill(this.positions, oldLength, this.positions.length, -1);
+	}
+}
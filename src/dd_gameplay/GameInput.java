@@ -0,0 +1,250 @@
+package dd_gameplay;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import genesis_event.EventSelector;
+import genesis_event.HandlerRelay;
+import genesis_event.MouseEvent;
+import genesis_event.MouseEvent.MouseButtonEventType;
+import genesis_event.MouseEvent.MouseMovementEventType;
+import genesis_event.MouseListener;
+import genesis_event.MultiEventSelector;
+import genesis_event.StrictEventSelector;
+import genesis_util.SimpleHandled;
+import genesis_util.Vector3D;
+
+/**
+ * GameInput collects the mouse events and passes them to the game at the beginning of
+ * each simulation tick. This way the input always affects the world between two ticks, 
+ * regardless of the thread it arrives on, and a session can be reproduced exactly from
+ * the recorded input. The mouse movement only moves the cursor focus of the level of 
+ * detail and is not recorded.
+ * @author agent
+ * @since 18.10.2026
+ * @see InputLog
+ */
+public class GameInput extends SimpleHandled implements MouseListener
+{
+	// ATTRIBUTES	--------------------
+	
+	private EventSelector<MouseEvent> selector;
+	private List<MouseEvent> pendingEvents, tickEvents;
+	private List<MouseListener> receivers;
+	private InputLog.Recorder recorder;
+	private long tick;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new input collector
+	 * @param handlers The handlers that will handle the collector. If these contain a
+	 * mouseListenerHandler, the collector receives the mouse events from it and the 
+	 * cursor focus follows the mouse.
+	 */
+	public GameInput(HandlerRelay handlers)
+	{
+		super(handlers);
+		
+		this.pendingEvents = new ArrayList<>();
+		this.tickEvents = new ArrayList<>();
+		this.receivers = new ArrayList<>();
+		this.recorder = null;
+		this.tick = 0;
+		
+		// Only the mouse button events affect the game
+		MultiEventSelector<MouseEvent> selector = new MultiEventSelector<>();
+		selector.addOption(MouseEvent.createButtonEventTypeSelector( 
+				MouseButtonEventType.PRESSED));
+		selector.addOption(MouseEvent.createButtonEventTypeSelector( 
+				MouseButtonEventType.DOWN));
+		selector.addOption(MouseEvent.createButtonEventTypeSelector( 
+				MouseButtonEventType.RELEASED));
+		this.selector = selector;
+		
+		new CursorTracker(handlers);
+	}
+	
+	
+	// IMPLEMENTED METHODS	------------
+	
+	@Override
+	public EventSelector<MouseEvent> getMouseEventSelector()
+	{
+		return this.selector;
+	}
+	
+	@Override
+	public boolean isInAreaOfInterest(Vector3D position)
+	{
+		// The receivers check the positions themselves once the events are applied
+		return true;
+	}
+	
+	@Override
+	public void onMouseEvent(MouseEvent event)
+	{
+		queue(event);
+	}
+	
+	
+	// ACCESSORS	--------------------
+	
+	/**
+	 * @return How many ticks have been started so far
+	 */
+	public long getTickCount()
+	{
+		return this.tick;
+	}
+	
+	/**
+	 * Starts recording the input applied to the game
+	 * @param recorder The recorder that receives the input. Null if the input shouldn't be
+	 * recorded.
+	 */
+	public synchronized void setRecorder(InputLog.Recorder recorder)
+	{
+		this.recorder = recorder;
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Adds a new listener that receives the mouse events when they are applied
+	 * @param receiver The listener that receives the mouse events
+	 */
+	public void addReceiver(MouseListener receiver)
+	{
+		this.receivers.add(receiver);
+	}
+	
+	/**
+	 * Queues a mouse event to be applied at the beginning of the next tick. This can be
+	 * called from any thread.
+	 * @param event The mouse event
+	 */
+	public void queue(MouseEvent event)
+	{
+		synchronized (this.pendingEvents)
+		{
+			this.pendingEvents.add(event);
+		}
+	}
+	
+	/**
+	 * Starts a new simulation tick, applying all the queued mouse events to the game. This
+	 * should be called right before the world is stepped.
+	 * @param duration The duration of the tick (in steps)
+	 */
+	public void beginTick(double duration)
+	{
+		synchronized (this.pendingEvents)
+		{
+			this.tickEvents.addAll(this.pendingEvents);
+			this.pendingEvents.clear();
+		}
+		
+		record(duration);
+		
+		for (MouseEvent event : this.tickEvents)
+		{
+			// The dolphins near the cursor are always drawn in detail
+			LevelOfDetail.setCursor(event.getPosition());
+			for (MouseListener receiver : this.receivers)
+			{
+				if (receiver.getMouseEventSelector().selects(event))
+					receiver.onMouseEvent(event);
+			}
+		}
+		this.tickEvents.clear();
+		
+		this.tick ++;
+	}
+	
+	/**
+	 * Stops recording the input and closes the recording
+	 */
+	public synchronized void stopRecording()
+	{
+		if (this.recorder == null)
+			return;
+		
+		try
+		{
+			this.recorder.close(this.tick);
+		}
+		catch (IOException e)
+		{
+			System.err.println("Couldn't finish the input recording: " + e.getMessage());
+		}
+		this.recorder = null;
+	}
+	
+	private synchronized void record(double duration)
+	{
+		if (this.recorder == null)
+			return;
+		
+		try
+		{
+			this.recorder.recordDuration(this.tick, duration);
+			for (MouseEvent event : this.tickEvents)
+			{
+				this.recorder.recordMouseEvent(this.tick, event);
+			}
+		}
+		catch (IOException e)
+		{
+			// The game continues without the recording
+			System.err.println("Input recording failed: " + e.getMessage());
+			this.recorder = null;
+		}
+	}
+	
+	
+	// SUBCLASSES	--------------------
+	
+	private static class CursorTracker extends SimpleHandled implements MouseListener
+	{
+		// ATTRIBUTES	----------------
+		
+		private StrictEventSelector<MouseEvent, MouseEvent.Feature> selector;
+		
+		
+		// CONSTRUCTOR	----------------
+		
+		public CursorTracker(HandlerRelay handlers)
+		{
+			super(handlers);
+			
+			this.selector = new StrictEventSelector<>();
+			this.selector.addRequiredFeature(MouseMovementEventType.MOVE);
+		}
+		
+		
+		// IMPLEMENTED METHODS	--------
+		
+		@Override
+		public EventSelector<MouseEvent> getMouseEventSelector()
+		{
+			return this.selector;
+		}
+		
+		@Override
+		public boolean isInAreaOfInterest(Vector3D position)
+		{
+			return true;
+		}
+		
+		@Override
+		public void onMouseEvent(MouseEvent event)
+		{
+			// The movement only affects the drawing, so it doesn't need to wait for a tick
+			LevelOfDetail.setCursor(event.getPosition());
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package dd_gameplay;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * GameMetrics collects statistics about the running game: how many dolphins there are in
+ * each state, how often certain events happen and how long the glass queries and the
+ * simulation ticks take. All the recording is done with atomic counters, so it doesn't
+ * lock or allocate anything.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class GameMetrics
+{
+	// ATTRIBUTES	--------------------
+	
+	/**
+	 * These are the events that are counted
+	 * @author agent
+	 * @since 18.10.2026
+	 */
+	public static enum Event
+	{
+		/**
+		 * A dolphin jumped
+		 */
+		JUMP("dd_jumps_total"),
+		/**
+		 * A dolphin landed in a glass
+		 */
+		LANDING("dd_landings_total"),
+		/**
+		 * A dolphin landed on the table
+		 */
+		STRANDING("dd_strandings_total"),
+		/**
+		 * A stranded dolphin died
+		 */
+		DEATH("dd_deaths_total"),
+		/**
+		 * The dolphins in a glass drank from it
+		 */
+		DRINK_PASS("dd_drink_passes_total");
+		
+		
+		// ATTRIBUTES	----------------
+		
+		private final String metricName;
+		
+		
+		// CONSTRUCTOR	----------------
+		
+		private Event(String metricName)
+		{
+			this.metricName = metricName;
+		}
+		
+		
+		// ACCESSORS	----------------
+		
+		/**
+		 * @return The name of the event's counter in the Prometheus format
+		 */
+		public String getMetricName()
+		{
+			return this.metricName;
+		}
+	}
+	
+	private static final int SWIMMING = 0;
+	private static final int JUMPING = 1;
+	private static final int STRANDED = 2;
+	private static final String[] STATE_NAMES = {"swimming", "jumping", "stranded"};
+	
+	private static final AtomicLongArray dolphins = new AtomicLongArray(STATE_NAMES.length);
+	private static final AtomicLongArray events = new AtomicLongArray( 
+			Event.values().length);
+	private static final TimeHistogram glassAtPositionQueries = new TimeHistogram();
+	private static final TimeHistogram glassBatchQueries = new TimeHistogram();
+	private static final TimeHistogram closestGlassQueries = new TimeHistogram();
+	private static final TimeHistogram ticks = new TimeHistogram();
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	private GameMetrics()
+	{
+		// The interface is static
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Records an event
+	 * @param event The event that happened
+	 */
+	public static void record(Event event)
+	{
+		events.incrementAndGet(event.ordinal());
+	}
+	
+	/**
+	 * @param event An event
+	 * @return How many times the event has happened
+	 */
+	public static long getEventCount(Event event)
+	{
+		return events.get(event.ordinal());
+	}
+	
+	/**
+	 * Updates the dolphin counts when a dolphin changes its state
+	 * @param oldState The dolphin's previous state. Null if the dolphin was just created.
+	 * @param newState The dolphin's new state. Null if the dolphin was removed from the
+	 * game.
+	 */
+	public static void recordStateChange(DolphinState oldState, DolphinState newState)
+	{
+		int oldIndex = getStateIndex(oldState);
+		int newIndex = getStateIndex(newState);
+		if (oldIndex == newIndex)
+			return;
+		
+		if (oldIndex >= 0)
+			dolphins.decrementAndGet(oldIndex);
+		if (newIndex >= 0)
+			dolphins.incrementAndGet(newIndex);
+	}
+	
+	/**
+	 * Records the duration of a getGlassAtPosition query
+	 * @param nanos How long the query took in nanoseconds
+	 */
+	public static void recordGlassAtPositionQuery(long nanos)
+	{
+		glassAtPositionQueries.record(nanos);
+	}
+	
+	/**
+	 * Records the duration of a getGlassesAtPositions query. The batches are kept apart 
+	 * from the single queries, since a batch handles any number of positions.
+	 * @param nanos How long the whole batch took in nanoseconds
+	 */
+	public static void recordGlassBatchQuery(long nanos)
+	{
+		glassBatchQueries.record(nanos);
+	}
+	
+	/**
+	 * Records the duration of a getClosestGlass query
+	 * @param nanos How long the query took in nanoseconds
+	 */
+	public static void recordClosestGlassQuery(long nanos)
+	{
+		closestGlassQueries.record(nanos);
+	}
+	
+	/**
+	 * Records the duration of a single simulation tick
+	 * @param nanos How long the tick took in nanoseconds
+	 */
+	public static void recordTick(long nanos)
+	{
+		ticks.record(nanos);
+	}
+	
+	/**
+	 * Writes all the metrics in the Prometheus text format
+	 * @param out The builder the metrics are written to
+	 */
+	public static void writePrometheus(StringBuilder out)
+	{
+		out.append("# HELP dd_dolphins The amount of dolphins in each state\n");
+		out.append("# TYPE dd_dolphins gauge\n");
+		for (int i = 0; i < STATE_NAMES.length; i++)
+		{
+			out.append("dd_dolphins{state=\"").append(STATE_NAMES[i]).append("\"} ").append( 
+					dolphins.get(i)).append('\n');
+		}
+		
+		for (Event event : Event.values())
+		{
+			String name = event.getMetricName();
+			out.append("# TYPE ").append(name).append(" counter\n");
+			out.append(name).append(' ').append(getEventCount(event)).append('\n');
+		}
+		
+		out.append("# HELP dd_glass_query_seconds The duration of the glass relay queries\n");
+		out.append("# TYPE dd_glass_query_seconds histogram\n");
+		glassAtPositionQueries.writePrometheus(out, "dd_glass_query_seconds", 
+				"query=\"glass_at_position\"");
+		glassBatchQueries.writePrometheus(out, "dd_glass_query_seconds", 
+				"query=\"glass_at_positions\"");
+		closestGlassQueries.writePrometheus(out, "dd_glass_query_seconds", 
+				"query=\"closest_glass\"");
+		
+		out.append("# HELP dd_tick_seconds The duration of the simulation ticks\n");
+		out.append("# TYPE dd_tick_seconds histogram\n");
+		ticks.writePrometheus(out, "dd_tick_seconds", "");
+	}
+	
+	private static int getStateIndex(DolphinState state)
+	{
+		if (state instanceof SwimmingDolphin)
+			return SWIMMING;
+		if (state instanceof JumpingDolphin)
+			return JUMPING;
+		if (state instanceof StrandedDolphin)
+			return STRANDED;
+		return -1;
+	}
+}
@@ -0,0 +1,62 @@
+package dd_gameplay;
+
+import java.util.SplittableRandom;
+
+/**
+ * GameRandom provides the random number generators used by the gameplay objects. All the 
+ * generators are derived from a single seed, so that a game can be reproduced by using 
+ * the same seed. Besides the shared generator, objects can split their own independent 
+ * streams, which don't need to be shared between threads.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class GameRandom
+{
+	// ATTRIBUTES	--------------------
+	
+	private static SplittableRandom root = new SplittableRandom();
+	private static SplittableRandom shared = root.split();
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	private GameRandom()
+	{
+		// The interface is static
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * @return The shared random number generator. The generator is not thread safe, so it 
+	 * should only be used outside the parallel parts of a step.
+	 */
+	public static SplittableRandom get()
+	{
+		return shared;
+	}
+	
+	/**
+	 * Creates a new random number generator that is independent from the others. The 
+	 * streams are derived from the seed in the order they are requested, so the same 
+	 * objects get the same streams as long as they are created in the same order.
+	 * @return A new random number generator
+	 */
+	public static synchronized SplittableRandom split()
+	{
+		return root.split();
+	}
+	
+	/**
+	 * Resets the random number generators so that they produce the same sequences of 
+	 * numbers each time the same seed is used. The generators split before this call are 
+	 * not affected.
+	 * @param seed The seed used for the random number generation
+	 */
+	public static synchronized void setSeed(long seed)
+	{
+		root = new SplittableRandom(seed);
+		shared = root.split();
+	}
+}
@@ -1,28 +1,21 @@
 package dd_gameplay;
 
-import java.awt.Color;
-import java.awt.Graphics2D;
-import java.awt.geom.AffineTransform;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import dd_main.DDHandlerType;
-import genesis_event.Drawable;
+import genesis_event.Actor;
 import genesis_event.EventSelector;
-import genesis_event.Handler;
 import genesis_event.HandlerRelay;
-import genesis_event.HandlerType;
 import genesis_event.MouseEvent;
 import genesis_event.MouseEvent.MouseButtonEventScale;
 import genesis_event.MouseEvent.MouseButtonEventType;
-import genesis_event.MouseListener;
 import genesis_event.StrictEventSelector;
-import genesis_util.DepthConstants;
 import genesis_util.HelpMath;
 import genesis_util.SimpleHandled;
-import genesis_util.Transformable;
 import genesis_util.Transformation;
 import genesis_util.Vector3D;
 
@@ -31,19 +24,21 @@ import genesis_util.Vector3D;
  * @author Mikko Hilpinen
  * @since 5.8.2015
  */
-public class Glass extends SimpleHandled implements Drawable, Transformable, MouseListener
+public class Glass extends SimpleHandled implements MouseTarget, Actor
 {
 	// ATTRIBUTES	-------------------
 	
+	// All the glasses react to a local mouse press
+	private static final EventSelector<MouseEvent> MOUSE_SELECTOR = createMouseSelector();
+	
 	private int radius;
-	private double fillAmount;
+	private double fillAmount, referenceFill;
 	private Beverage beverage;
 	private Transformation transformation;
-	private EventSelector<MouseEvent> mouseSelector;
 	private GlassDolphinHandler handler;
 	private HandlerRelay handlers;
-	
-	private static Random random = new Random();
+	private SplittableRandom random;
+	private int relayIndex;
 	
 	
 	// CONSTRUCTOR	-------------------
@@ -58,6 +53,23 @@ public class Glass extends SimpleHandled implements Drawable, Transformable, Mou
 	 */
 	public Glass(HandlerRelay handlers, Vector3D position, Beverage beverage, int radius, 
 			double fill)
+	{
+		this(handlers, position, beverage, radius, fill, false);
+	}
+	
+	/**
+	 * Creates a new glass of beverage
+	 * @param handlers The handlers that will handle the object
+	 * @param position The glasses position
+	 * @param beverage The The beverage inside the glass
+	 * @param radius The radius of the glass (in pixels)
+	 * @param fill How full the glass is [0, 1]
+	 * @param compactStorage Should the movement of the dolphins in the glass be stored in 
+	 * primitive arrays instead of the dolphins' states. This is much more efficient for 
+	 * glasses with a large amount of dolphins.
+	 */
+	public Glass(HandlerRelay handlers, Vector3D position, Beverage beverage, int radius, 
+			double fill, boolean compactStorage)
 	{
 		super(handlers);
 		
@@ -65,40 +77,31 @@ public class Glass extends SimpleHandled implements Drawable, Transformable, Mou
 		this.beverage = beverage;
 		this.radius = radius;
 		this.fillAmount = fill;
+		this.referenceFill = fill > 0 ? fill : 1;
 		this.handlers = handlers;
+		this.random = GameRandom.split();
+		this.relayIndex = -1;
 		
-		StrictEventSelector<MouseEvent, MouseEvent.Feature> localPressSelector = 
-				MouseEvent.createButtonEventTypeSelector(MouseButtonEventType.PRESSED);
-		localPressSelector.addRequiredFeature(MouseButtonEventScale.LOCAL);
-		this.mouseSelector = localPressSelector;
-		this.handler = new GlassDolphinHandler();
+		this.handler = new GlassDolphinHandler(compactStorage ? new DolphinStore(this) : null);
+		
+		// Makes the glass searchable
+		GlassRelay relay = getRelay();
+		if (relay != null)
+			relay.updateGlassPosition(this);
+		MouseHitTester hitTester = getHitTester();
+		if (hitTester != null)
+			hitTester.updatePosition(this);
 	}
 	
 	
 	// IMPLEMENTED METHODS	----------------
 
 	@Override
-	public void drawSelf(Graphics2D g2d)
-	{
-		AffineTransform lastTransform = getTransformation().transform(g2d);
-		
-		g2d.setColor(Color.CYAN);
-		g2d.drawOval(-this.radius, -this.radius, this.radius * 2, this.radius * 2);
-		
-		if (!isEmpty())
-		{
-			int contentRadius = getContentRadius();
-			g2d.setColor(getBeverage().getColor());
-			g2d.fillOval(-contentRadius, -contentRadius, contentRadius * 2, contentRadius * 2);
-		}
-		
-		g2d.setTransform(lastTransform);
-	}
-
-	@Override
-	public int getDepth()
+	public void act(double duration)
 	{
-		return DepthConstants.BACK;
+		// Moves the compactly stored dolphins
+		if (getHandler().store != null)
+			getHandler().store.act(duration);
 	}
 
 	@Override
@@ -111,12 +114,19 @@ public class Glass extends SimpleHandled implements Drawable, Transformable, Mou
 	public void setTrasformation(Transformation t)
 	{
 		this.transformation = t;
+		
+		GlassRelay relay = getRelay();
+		if (relay != null)
+			relay.updateGlassPosition(this);
+		MouseHitTester hitTester = getHitTester();
+		if (hitTester != null)
+			hitTester.updatePosition(this);
 	}
 	
 	@Override
 	public EventSelector<MouseEvent> getMouseEventSelector()
 	{
-		return this.mouseSelector;
+		return MOUSE_SELECTOR;
 	}
 
 	@Override
@@ -135,6 +145,12 @@ public class Glass extends SimpleHandled implements Drawable, Transformable, Mou
 		if (!isEmpty())
 			getHandler().drink(this, this.handlers);
 	}
+	
+	@Override
+	public double getHitRadius()
+	{
+		return getRadius();
+	}
 
 	
 	// GETTERS & SETTERS	-----------------
@@ -163,9 +179,68 @@ public class Glass extends SimpleHandled implements Drawable, Transformable, Mou
 		return this.handler;
 	}
 	
+	/**
+	 * @return The glass' index among the non-empty glasses in the glass relay. -1 if the 
+	 * glass is not listed as non-empty.
+	 */
+	int getRelayIndex()
+	{
+		return this.relayIndex;
+	}
+	
+	/**
+	 * Changes the glass' index among the non-empty glasses in the glass relay
+	 * @param index The glass' new index
+	 */
+	void setRelayIndex(int index)
+	{
+		this.relayIndex = index;
+	}
+	
+	/**
+	 * @return How much the swimming dolphins' stored distances from the center are 
+	 * multiplied. The distances are stored relative to the glass' original fill, so that 
+	 * the dolphins follow the beverage surface without being moved one by one.
+	 */
+	double getSwimmingScale()
+	{
+		return Math.max(0, this.fillAmount) / this.referenceFill;
+	}
+	
+	/**
+	 * @param radius A distance from the center of the glass
+	 * @return The distance in the form it is stored for the swimming dolphins
+	 * @see #getSwimmingScale()
+	 */
+	double toSwimmingRadius(double radius)
+	{
+		double scale = getSwimmingScale();
+		if (scale <= 0)
+			return radius;
+		return radius / scale;
+	}
+	
 	
 	// OTHER METHODS	---------------------
 	
+	private GlassRelay getRelay()
+	{
+		return (GlassRelay) this.handlers.getHandler(DDHandlerType.GLASSRELAY);
+	}
+	
+	private MouseHitTester getHitTester()
+	{
+		return (MouseHitTester) this.handlers.getHandler(DDHandlerType.MOUSEHITTESTER);
+	}
+	
+	private static EventSelector<MouseEvent> createMouseSelector()
+	{
+		StrictEventSelector<MouseEvent, MouseEvent.Feature> localPressSelector = 
+				MouseEvent.createButtonEventTypeSelector(MouseButtonEventType.PRESSED);
+		localPressSelector.addRequiredFeature(MouseButtonEventScale.LOCAL);
+		return localPressSelector;
+	}
+	
 	/**
 	 * @return The radius of the beverage in the glass
 	 */
@@ -174,6 +249,23 @@ public class Glass extends SimpleHandled implements Drawable, Transformable, Mou
 		return (int) (this.radius * this.fillAmount);
 	}
 	
+	/**
+	 * @return How full the glass is [0, 1]
+	 */
+	public double getFill()
+	{
+		return this.fillAmount;
+	}
+	
+	/**
+	 * @return The glass' own random number generator. The generator is not shared with 
+	 * the other glasses.
+	 */
+	public SplittableRandom getRandom()
+	{
+		return this.random;
+	}
+	
 	/**
 	 * @return Is the glass empty
 	 */
@@ -182,13 +274,94 @@ public class Glass extends SimpleHandled implements Drawable, Transformable, Mou
 		return this.fillAmount <= 0;
 	}
 	
+	/**
+	 * @return How many times one pixel can be drunk from the glass before it is empty
+	 */
+	public int getDrinksLeft()
+	{
+		// Repeats the subtractions of drink(int) so that the rounding stays the same
+		double pixel = 1 / (double) getRadius();
+		double fill = this.fillAmount;
+		int drinks = 0;
+		while (fill > 0)
+		{
+			fill -= pixel;
+			drinks ++;
+		}
+		
+		return drinks;
+	}
+	
 	/**
 	 * Decreases the amount of beverage in the glass
 	 * @param amount How many pixels (radius) are removed from the glass
 	 */
 	public void drink(int amount)
 	{
-		this.fillAmount -= amount / (double) getRadius();
+		// The pixels are removed one at a time, as if each dolphin drank separately
+		double pixel = 1 / (double) getRadius();
+		for (int i = 0; i < amount; i++)
+		{
+			this.fillAmount -= pixel;
+		}
+		
+		// The empty glasses are no longer valid targets
+		if (isEmpty() && this.relayIndex >= 0)
+		{
+			GlassRelay relay = getRelay();
+			if (relay != null)
+				relay.updateGlassContent(this);
+		}
+	}
+	
+	/**
+	 * Adds a new swimming dolphin to the glass
+	 * @param data The dolphin's data
+	 * @param relativePosition The position of the dolphin in relation to the glass
+	 * @param speed The speed with which the dolphin circles the glass (in pixels)
+	 * @return The dolphin that was created
+	 */
+	public Dolphin addDolphin(DolphinData data, Vector3D relativePosition, double speed)
+	{
+		Dolphin dolphin = new Dolphin(this.handlers, data);
+		dolphin.swimIn(this, relativePosition, speed);
+		return dolphin;
+	}
+	
+	/**
+	 * Prepares the glass for receiving multiple dolphins at once
+	 * @param amounts How many dolphins drinking each beverage will be added to the glass. 
+	 * The amounts are indexed by the beverages' ordinals.
+	 */
+	void reserveDolphins(int[] amounts)
+	{
+		if (getHandler().store != null)
+		{
+			int total = 0;
+			for (int amount : amounts)
+			{
+				total += amount;
+			}
+			getHandler().store.ensureCapacity(total);
+		}
+		else
+		{
+			for (int beverage = 0; beverage < amounts.length; beverage++)
+			{
+				getHandler().reserveDolphins(beverage, amounts[beverage]);
+			}
+		}
+	}
+	
+	/**
+	 * Makes an existing dolphin swim in this glass
+	 * @param dolphin The dolphin that enters the glass
+	 * @param relativePosition The position of the dolphin in relation to the glass
+	 * @param speed The speed with which the dolphin circles the glass (in pixels)
+	 */
+	public void addDolphin(Dolphin dolphin, Vector3D relativePosition, double speed)
+	{
+		dolphin.swimIn(this, relativePosition, speed);
 	}
 	
 	/**
@@ -209,181 +382,363 @@ public class Glass extends SimpleHandled implements Drawable, Transformable, Mou
 	public Vector3D getRandomPositionInside()
 	{
 		return getTransformation().getPosition().plus(HelpMath.lenDir(0.2 + 
-				random.nextDouble() * getContentRadius() * 0.4, 
-				random.nextDouble() * 360));
+				this.random.nextDouble() * getContentRadius() * 0.4, 
+				this.random.nextDouble() * 360));
 	}
 	
 	
 	// SUBCLASSES	-----------------------
 	
 	/**
-	 * This handler handles all the dolphins inside the glass
+	 * This handler handles all the dolphins inside the glass. The swimming dolphins are 
+	 * kept in lists grouped by the beverage they drink, or in a store if the glass stores 
+	 * its dolphins in a compact form.
 	 * @author Mikko Hilpinen
 	 * @since 6.8.2015
 	 */
-	public static class GlassDolphinHandler extends Handler<SwimmingDolphin>
+	public static class GlassDolphinHandler
 	{
+		// ATTRIBUTES	----------------
+		
+		private DolphinStore store;
+		private List<ArrayList<SwimmingDolphin>> beverageDolphins;
+		private DrunknessHeap[] drunknessHeaps;
+		
+		
 		// CONSTRUCTOR	----------------
 		
 		/**
 		 * Creates a new handler
+		 * @param store The store that holds the compactly stored dolphins in the glass. 
+		 * Null if the dolphins should move on their own.
 		 */
-		public GlassDolphinHandler()
+		public GlassDolphinHandler(DolphinStore store)
 		{
-			super(false);
+			this.store = store;
+			this.drunknessHeaps = DrunknessHeap.createBeverageHeaps();
+			this.beverageDolphins = new ArrayList<>(this.drunknessHeaps.length);
+			for (int i = 0; i < this.drunknessHeaps.length; i++)
+			{
+				this.beverageDolphins.add(new ArrayList<SwimmingDolphin>());
+			}
 		}
 		
 		
-		// IMPLEMENTED METHODS	--------
-
-		@Override
-		public HandlerType getHandlerType()
-		{
-			return DDHandlerType.GLASS;
-		}
-
-		@Override
-		protected boolean handleObject(SwimmingDolphin h)
+		// ACCESSORS	----------------
+		
+		/**
+		 * @return The store that holds the compactly stored dolphins in the glass. Null if 
+		 * the glass doesn't store its dolphins in a compact form.
+		 */
+		DolphinStore getStore()
 		{
-			h.drink();
-			return true;
+			return this.store;
 		}
 		
 		
 		// OTHER METHODS	----------------
 		
-		private void drink(Glass glass, HandlerRelay handlers)
+		/**
+		 * Makes the dolphins in the glass drink from it. The dolphins are moved along with 
+		 * the beverage surface and thrown to other glasses if the glass becomes empty.
+		 * @param glass The glass the dolphins are in
+		 * @param handlers The handlers that handle the game objects
+		 */
+		public void drink(Glass glass, HandlerRelay handlers)
 		{
-			// Makes all the dolphins drink from the glass
-			double lastFill = glass.fillAmount;
-			handleObjects(true);
+			// Only the dolphins that like the beverage drink, until the glass is empty. 
+			// The glass is emptied only once, by the total amount.
+			GameMetrics.record(GameMetrics.Event.DRINK_PASS);
+			int beverage = glass.getBeverage().ordinal();
+			List<SwimmingDolphin> drinkers = this.beverageDolphins.get(beverage);
+			int drinksLeft = glass.getDrinksLeft();
+			int drinks = Math.min(drinksLeft, drinkers.size());
 			
-			// Moves the dolphins according to the radius change
-			double fillScale = glass.fillAmount / lastFill;
-			handleObjects(new DolphinMovingOperator(fillScale), false);
+			for (int i = 0; i < drinks; i++)
+			{
+				DolphinData data = drinkers.get(i).getData();
+				data.increaseDrunkness(1);
+				this.drunknessHeaps[beverage].update(i, data.getDrunkness());
+			}
+			if (this.store != null)
+				drinks += this.store.drink(drinksLeft - drinks);
+			// The dolphins follow the radius change, since their distances are relative to 
+			// the fill
+			glass.drink(drinks);
 			
 			// If the glass became empty, throws the dolphins to somewhere else
 			if (glass.isEmpty())
-				handleObjects(new DolphinRelocationOperator((GlassRelay) handlers.getHandler(
-						DDHandlerType.GLASSRELAY), glass), true);
+				relocateDolphins((GlassRelay) handlers.getHandler(DDHandlerType.GLASSRELAY), 
+						glass.getRandom());
 		}
 		
-		private SwimmingDolphin findNextJumper(Glass target)
+		/**
+		 * Makes the swimming dolphins in the glass act. The compactly stored dolphins are 
+		 * moved by the glass itself. The dolphins only affect the glass they're in, so 
+		 * different glasses can be stepped concurrently.
+		 * @param duration How long the dolphins swim (in steps)
+		 */
+		public void stepDolphins(double duration)
 		{
-			BestDolphinSearchOperator operator = new BestDolphinSearchOperator(
-					target.getBeverage());
-			handleObjects(operator, true);
-			return operator.getBestDolphin();
+			for (List<SwimmingDolphin> group : this.beverageDolphins)
+			{
+				for (int i = 0; i < group.size(); i++)
+				{
+					group.get(i).act(duration);
+				}
+			}
 		}
 		
-		
-		// SUBCLASSES	--------------------
-		
-		private class DolphinMovingOperator extends HandlingOperator
+		/**
+		 * Adds a new swimming dolphin to the handler
+		 * @param dolphin The dolphin that starts swimming in the glass
+		 */
+		public void addDolphin(SwimmingDolphin dolphin)
 		{
-			// ATTRIBUTES	----------------
-			
-			private double scale;
+			// The dolphins are grouped by the beverage they drink
+			DolphinData data = dolphin.getData();
+			int beverage = data.getDrinkType().ordinal();
+			List<SwimmingDolphin> group = this.beverageDolphins.get(beverage);
 			
+			int index = group.size();
+			group.add(dolphin);
+			dolphin.setHandlerIndex(index);
+			this.drunknessHeaps[beverage].add(index, data.getDrunkness());
+		}
+		
+		/**
+		 * Prepares a beverage group for receiving multiple dolphins at once
+		 * @param beverage The ordinal of the beverage the dolphins drink
+		 * @param amount How many dolphins will be added to the group
+		 */
+		void reserveDolphins(int beverage, int amount)
+		{
+			if (amount <= 0)
+				return;
 			
-			// CONSTRUCTOR	----------------
-			
-			public DolphinMovingOperator(double scale)
-			{
-				this.scale = scale;
-			}
-			
+			ArrayList<SwimmingDolphin> group = this.beverageDolphins.get(beverage);
+			group.ensureCapacity(group.size() + amount);
+			this.drunknessHeaps[beverage].ensureCapacity(amount);
+		}
+		
+		/**
+		 * Removes a swimming dolphin from the handler
+		 * @param dolphin The dolphin that leaves the glass
+		 */
+		public void removeDolphin(SwimmingDolphin dolphin)
+		{
+			int index = dolphin.getHandlerIndex();
+			if (index < 0)
+				return;
 			
-			// IMPLEMENTED METHODS	--------
+			int beverage = dolphin.getData().getDrinkType().ordinal();
+			List<SwimmingDolphin> group = this.beverageDolphins.get(beverage);
+			this.drunknessHeaps[beverage].remove(index);
+			dolphin.setHandlerIndex(-1);
 			
-			@Override
-			protected boolean handleObject(SwimmingDolphin h)
+			// The last dolphin in the group takes the removed dolphin's index
+			int last = group.size() - 1;
+			SwimmingDolphin moved = group.remove(last);
+			if (index != last)
 			{
-				// Moves the dolphin
-				h.setTrasformation(h.getOwnTransformation().withPosition(
-						h.getOwnTransformation().getPosition().times(this.scale)));
-				return true;
+				group.set(index, moved);
+				moved.setHandlerIndex(index);
+				this.drunknessHeaps[beverage].changeId(last, index);
 			}
 		}
 		
-		private class BestDolphinSearchOperator extends HandlingOperator
+		/**
+		 * Records all the dolphins swimming in the glass to a render snapshot
+		 * @param snapshot The snapshot the dolphins are recorded to
+		 * @param glassTransformation The transformation of the glass
+		 */
+		public void addDolphinsTo(RenderSnapshot snapshot, Transformation glassTransformation)
 		{
-			// ATTRIBUTES	----------------
-			
-			private SwimmingDolphin best;
-			private Beverage target;
-			private int bestInitiative = -1000;
-			
-			
-			// CONSTRUCTOR	----------------
-			
-			public BestDolphinSearchOperator(Beverage target)
+			for (List<SwimmingDolphin> group : this.beverageDolphins)
 			{
-				this.target = target;
-				this.best = null;
+				for (SwimmingDolphin dolphin : group)
+				{
+					DolphinData data = dolphin.getData();
+					snapshot.addDolphin(dolphin.getDolphin(), glassTransformation, 
+							dolphin.getOwnTransformation(), DolphinSprites.getSpriteIndex( 
+							data.getDrinkType(), data.getDrunkness()), false);
+				}
 			}
 			
-			
-			// IMPLEMENTED METHODS	--------
-			
-			@Override
-			protected boolean handleObject(SwimmingDolphin h)
+			if (this.store != null)
+				this.store.addTo(snapshot, glassTransformation);
+		}
+		
+		/**
+		 * Records the glass' dolphins to a render snapshot as a crowd. Only the share of 
+		 * each beverage is recorded, along with the dolphins near the focus points.
+		 * @param snapshot The snapshot the dolphins are recorded to. The glass should have 
+		 * just been recorded.
+		 * @param glassTransformation The transformation of the glass
+		 * @param focus The focus points in the glass' coordinate system
+		 */
+		public void addCrowdTo(RenderSnapshot snapshot, Transformation glassTransformation, 
+				LevelOfDetail focus)
+		{
+			for (int beverage = 0; beverage < this.beverageDolphins.size(); beverage++)
 			{
-				int initiative = h.getData().getInitiativeToDrink(this.target);
+				List<SwimmingDolphin> group = this.beverageDolphins.get(beverage);
+				snapshot.addCrowdShare(beverage, group.size());
 				
-				if (this.best == null || initiative > this.bestInitiative)
+				for (SwimmingDolphin dolphin : group)
 				{
-					this.best = h;
-					this.bestInitiative = initiative;
+					Transformation ownTransformation = dolphin.getOwnTransformation();
+					if (!focus.isNearFocus(ownTransformation.getPosition()))
+						continue;
+					
+					DolphinData data = dolphin.getData();
+					snapshot.addDolphin(dolphin.getDolphin(), glassTransformation, 
+							ownTransformation, DolphinSprites.getSpriteIndex( 
+							data.getDrinkType(), data.getDrunkness()), false);
 				}
-				
-				return true;
 			}
 			
-			
-			// ACCESSORS	----------------
-			
-			public SwimmingDolphin getBestDolphin()
+			if (this.store != null)
+				this.store.addCrowdTo(snapshot, glassTransformation, focus);
+		}
+		
+		/**
+		 * @return The amount of compactly stored dolphins in this handler
+		 */
+		public int getStoredDolphinAmount()
+		{
+			if (this.store == null)
+				return 0;
+			return this.store.size();
+		}
+		
+		/**
+		 * @return Does the handler store dolphins in a compact form
+		 */
+		public boolean hasStore()
+		{
+			return this.store != null;
+		}
+		
+		/**
+		 * @return The amount of dolphins swimming in the glass, including the compactly 
+		 * stored ones
+		 */
+		public int getDolphinAmount()
+		{
+			int amount = getStoredDolphinAmount();
+			for (List<SwimmingDolphin> group : this.beverageDolphins)
 			{
-				return this.best;
+				amount += group.size();
 			}
+			return amount;
 		}
 		
-		private class DolphinRelocationOperator extends HandlingOperator
+		/**
+		 * Writes all the dolphins swimming in the glass in the world snapshot format
+		 * @param buffer The buffer the dolphins are written to
+		 * @see WorldSnapshot
+		 */
+		void writeDolphins(ByteBuffer buffer)
 		{
-			// ATTRIBUTES	-----------------
+			for (List<SwimmingDolphin> group : this.beverageDolphins)
+			{
+				for (SwimmingDolphin dolphin : group)
+				{
+					WorldSnapshot.writeData(buffer, dolphin.getData());
+					dolphin.writeTo(buffer);
+				}
+			}
 			
-			private List<Glass> glasses;
+			if (this.store != null)
+				this.store.writeTo(buffer);
+		}
+		
+		/**
+		 * Reads dolphins written in the world snapshot format and makes them swim in the 
+		 * glass
+		 * @param glass The glass the dolphins swim in
+		 * @param handlers The handlers that will handle the dolphins
+		 * @param buffer The buffer the dolphins are read from
+		 * @param amount How many dolphins are read
+		 * @throws IOException If the dolphin data is invalid
+		 * @see WorldSnapshot
+		 */
+		void readDolphins(Glass glass, HandlerRelay handlers, ByteBuffer buffer, int amount) 
+				throws IOException
+		{
+			// The store is grown only once
+			if (this.store != null)
+				this.store.ensureCapacity(amount);
 			
+			for (int i = 0; i < amount; i++)
+			{
+				Dolphin dolphin = new Dolphin(handlers, WorldSnapshot.readData(buffer));
+				dolphin.swimIn(glass, buffer.getDouble(), buffer.getDouble(), 
+						buffer.getDouble(), buffer.get() != 0);
+			}
+		}
+		
+		/**
+		 * Finds the dolphin that is most willing to jump to the given glass
+		 * @param target The glass the dolphin would jump to
+		 * @return The dolphin with the highest initiative to drink from the glass. Null if 
+		 * there are no dolphins in this handler.
+		 */
+		public SwimmingDolphin findNextJumper(Glass target)
+		{
+			// The least drunk dolphin of each beverage group is the best of its group
+			Beverage beverage = target.getBeverage();
+			SwimmingDolphin best = null;
+			int bestInitiative = 0;
+			int bestHeap = DrunknessHeap.findBestHeap(this.drunknessHeaps, beverage);
+			if (bestHeap >= 0)
+			{
+				DrunknessHeap heap = this.drunknessHeaps[bestHeap];
+				best = this.beverageDolphins.get(bestHeap).get(heap.peek());
+				bestInitiative = DrunknessHeap.getBestInitiative(heap, 
+						best.getData().getDrinkType(), beverage);
+			}
 			
-			// CONSTRUCTOR	-----------------
+			// The stored dolphins are compared as well
+			if (this.store != null)
+			{
+				int storedBest = this.store.findBest(beverage);
+				if (storedBest >= 0 && (best == null || 
+						this.store.getInitiativeToDrink(storedBest, beverage) > bestInitiative))
+					return this.store.getSwimmer(storedBest);
+			}
 			
-			public DolphinRelocationOperator(GlassRelay relay, Glass start)
+			return best;
+		}
+		
+		
+		private void relocateDolphins(GlassRelay relay, SplittableRandom random)
+		{
+			// The targets are picked with the emptied glass' generator. The emptied glass is 
+			// no longer among the non-empty glasses. The last dolphin of each group leaves 
+			// first so that the indices don't change.
+			for (List<SwimmingDolphin> group : this.beverageDolphins)
 			{
-				this.glasses = relay.getAllGlasses();
-				this.glasses.remove(start);
-				
-				Collection<Glass> emptyGlasses = new ArrayList<>();
-				for (Glass glass : this.glasses)
+				while (!group.isEmpty())
 				{
-					if (glass.isEmpty())
-						emptyGlasses.add(glass);
+					Glass target = relay.getRandomNonEmptyGlass(random);
+					if (target == null)
+						return;
+					
+					group.get(group.size() - 1).jumpTo(target);
 				}
-				
-				this.glasses.removeAll(emptyGlasses);
 			}
 			
-			
-			// IMPLEMENTED METHODS	--------
-			
-			@Override
-			protected boolean handleObject(SwimmingDolphin h)
+			if (this.store == null)
+				return;
+			while (this.store.size() > 0)
 			{
-				if (this.glasses.isEmpty())
-					return false;
+				Glass target = relay.getRandomNonEmptyGlass(random);
+				if (target == null)
+					return;
 				
-				h.jumpTo(this.glasses.get(random.nextInt(this.glasses.size())));
-				return true;
+				this.store.getSwimmer(this.store.size() - 1).jumpTo(target);
 			}
 		}
 	}
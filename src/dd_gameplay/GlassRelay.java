@@ -1,7 +1,9 @@
 package dd_gameplay;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.SplittableRandom;
 
 import dd_main.DDHandlerType;
 import genesis_event.Handler;
@@ -10,7 +12,9 @@ import genesis_util.HelpMath;
 import genesis_util.Vector3D;
 
 /**
- * The glass relay keeps track of all the glasses in the game
+ * The glass relay keeps track of all the glasses in the game. The glasses that still 
+ * have beverage in them are also listed separately, so that they can be picked at random 
+ * and searched without going through the empty glasses.
  * @author Mikko Hilpinen
  * @since 6.8.2015
  */
@@ -18,8 +22,13 @@ public class GlassRelay extends Handler<Glass>
 {
 	// ATTRIBUTES	-------------------
 	
-	private Vector3D checkPosition;
-	private Glass found;
+	private static final double CELL_SIZE = 256;
+	
+	private SpatialGrid<Glass> index, nonEmptyIndex;
+	private List<Glass> nonEmptyGlasses;
+	private int largestRadius;
+	private long[] batchOrder;
+	private List<Glass> batchCandidates;
 	
 	
 	// CONSTRUCTOR	-------------------
@@ -30,6 +39,13 @@ public class GlassRelay extends Handler<Glass>
 	public GlassRelay()
 	{
 		super(false);
+		
+		this.index = new SpatialGrid<>(CELL_SIZE);
+		this.nonEmptyIndex = new SpatialGrid<>(CELL_SIZE);
+		this.nonEmptyGlasses = new ArrayList<>();
+		this.largestRadius = 0;
+		this.batchOrder = new long[16];
+		this.batchCandidates = new ArrayList<>();
 	}
 	
 	
@@ -44,12 +60,8 @@ public class GlassRelay extends Handler<Glass>
 	@Override
 	protected boolean handleObject(Glass h)
 	{
-		if (this.checkPosition.minus(h.getTransformation().getPosition()).getLength() < 
-				h.getRadius())
-		{
-			this.found = h;
-			return false;
-		}
+		// Indexes each glass again
+		updateGlassPosition(h);
 		return true;
 	}
 	
@@ -63,13 +75,10 @@ public class GlassRelay extends Handler<Glass>
 	 */
 	public Glass getGlassAtPosition(Vector3D position)
 	{
-		this.checkPosition = position;
-		this.found = null;
-		handleObjects(true);
-		Glass found = this.found;
-		
-		this.found = null;
-		return found;
+		long startTime = System.nanoTime();
+		Glass glass = findGlassAtPosition(position);
+		GameMetrics.recordGlassAtPositionQuery(System.nanoTime() - startTime);
+		return glass;
 	}
 	
 	/**
@@ -80,9 +89,160 @@ public class GlassRelay extends Handler<Glass>
 	 */
 	public Glass getClosestGlass(Vector3D position, boolean includeEmpty)
 	{
-		FindNearestGlassOperator operator = new FindNearestGlassOperator(position, includeEmpty);
-		handleObjects(operator, true);
-		return operator.getClosestGlass();
+		long startTime = System.nanoTime();
+		Glass glass = findClosestGlass(position, includeEmpty);
+		GameMetrics.recordClosestGlassQuery(System.nanoTime() - startTime);
+		return glass;
+	}
+	
+	/**
+	 * Finds the glasses at multiple positions at once. The positions are sorted by their 
+	 * cells in the spatial index, so that the glasses near each cell are only collected 
+	 * once.
+	 * @param xs The x-coordinates of the positions
+	 * @param ys The y-coordinates of the positions
+	 * @param amount How many positions there are
+	 * @param result The array the glasses are written to, in the same order as the 
+	 * positions. Null is written for the positions that have no glass.
+	 */
+	public synchronized void getGlassesAtPositions(double[] xs, double[] ys, int amount, 
+			Glass[] result)
+	{
+		long startTime = System.nanoTime();
+		
+		// Each position's cell and index are packed into a single number, so that the 
+		// positions can be sorted by their cells without boxing
+		if (this.batchOrder.length < amount)
+			this.batchOrder = new long[amount * 2];
+		for (int i = 0; i < amount; i++)
+		{
+			this.batchOrder[i] = ((long) toCellCode(this.index.toCellIndex(xs[i]), 
+					this.index.toCellIndex(ys[i])) << 32) | i;
+		}
+		Arrays.sort(this.batchOrder, 0, amount);
+		
+		// Sweeps through the positions one cell at a time
+		int range = (int) Math.ceil(this.largestRadius / this.index.getCellSize());
+		List<Glass> candidates = this.batchCandidates;
+		int lastCellX = 0;
+		int lastCellY = 0;
+		for (int k = 0; k < amount; k++)
+		{
+			int i = (int) this.batchOrder[k];
+			int cellX = this.index.toCellIndex(xs[i]);
+			int cellY = this.index.toCellIndex(ys[i]);
+			if (k == 0 || cellX != lastCellX || cellY != lastCellY)
+			{
+				lastCellX = cellX;
+				lastCellY = cellY;
+				candidates.clear();
+				for (int x = cellX - range; x <= cellX + range; x++)
+				{
+					for (int y = cellY - range; y <= cellY + range; y++)
+					{
+						candidates.addAll(this.index.getCell(x, y));
+					}
+				}
+			}
+			
+			result[i] = null;
+			for (int c = 0; c < candidates.size(); c++)
+			{
+				Glass glass = candidates.get(c);
+				Vector3D center = glass.getTransformation().getPosition();
+				double dx = xs[i] - center.getFirst();
+				double dy = ys[i] - center.getSecond();
+				if (!glass.getIsDeadStateOperator().getState() && 
+						Math.sqrt(dx * dx + dy * dy) < glass.getRadius())
+				{
+					result[i] = glass;
+					break;
+				}
+			}
+		}
+		candidates.clear();
+		
+		GameMetrics.recordGlassBatchQuery(System.nanoTime() - startTime);
+	}
+	
+	private static int toCellCode(int cellX, int cellY)
+	{
+		// Very distant cells may share a code, which only affects the order of the positions
+		return (cellX << 16) | (cellY & 0xFFFF);
+	}
+	
+	private Glass findGlassAtPosition(Vector3D position)
+	{
+		// Only the cells that may contain a glass reaching the position are checked
+		int range = (int) Math.ceil(this.largestRadius / this.index.getCellSize());
+		int cellX = this.index.toCellIndex(position.getFirst());
+		int cellY = this.index.toCellIndex(position.getSecond());
+		
+		for (int x = cellX - range; x <= cellX + range; x++)
+		{
+			for (int y = cellY - range; y <= cellY + range; y++)
+			{
+				for (Glass glass : this.index.getCell(x, y))
+				{
+					if (!glass.getIsDeadStateOperator().getState() && 
+							position.minus(glass.getTransformation().getPosition()).getLength() < 
+							glass.getRadius())
+						return glass;
+				}
+			}
+		}
+		
+		return null;
+	}
+	
+	private synchronized Glass findClosestGlass(Vector3D position, boolean includeEmpty)
+	{
+		// The empty glasses are not even visited when they're not included
+		SpatialGrid<Glass> index = includeEmpty ? this.index : this.nonEmptyIndex;
+		if (index.isEmpty())
+			return null;
+		
+		// Searches the cells in rings around the position until no closer glass can be found
+		int cellX = index.toCellIndex(position.getFirst());
+		int cellY = index.toCellIndex(position.getSecond());
+		int maxRing = Math.max(Math.max(cellX - index.getMinCellX(), 
+				index.getMaxCellX() - cellX), Math.max(cellY - index.getMinCellY(), 
+				index.getMaxCellY() - cellY));
+		
+		Glass best = null;
+		double shortestDistance = 0;
+		
+		for (int ring = 0; ring <= maxRing; ring++)
+		{
+			for (int x = cellX - ring; x <= cellX + ring; x++)
+			{
+				// Only the edge of the ring is checked
+				int yStep = (x == cellX - ring || x == cellX + ring) ? 1 : Math.max(1, ring * 2);
+				for (int y = cellY - ring; y <= cellY + ring; y += yStep)
+				{
+					for (Glass glass : index.getCell(x, y))
+					{
+						if (glass.getIsDeadStateOperator().getState() || 
+								(!includeEmpty && glass.isEmpty()))
+							continue;
+						
+						double distance = HelpMath.pointDistance2D(position, 
+								glass.getTransformation().getPosition());
+						if (best == null || distance < shortestDistance)
+						{
+							best = glass;
+							shortestDistance = distance;
+						}
+					}
+				}
+			}
+			
+			// The next ring can't contain anything closer than this
+			if (best != null && shortestDistance <= ring * index.getCellSize())
+				break;
+		}
+		
+		return best;
 	}
 	
 	/**
@@ -95,57 +255,126 @@ public class GlassRelay extends Handler<Glass>
 		return operator.getGlasses();
 	}
 	
+	/**
+	 * Picks a random glass that still has beverage in it
+	 * @param random The random number generator used for picking the glass
+	 * @return A random non-empty glass. Null if all the glasses are empty.
+	 */
+	public synchronized Glass getRandomNonEmptyGlass(SplittableRandom random)
+	{
+		while (!this.nonEmptyGlasses.isEmpty())
+		{
+			Glass glass = this.nonEmptyGlasses.get(random.nextInt(this.nonEmptyGlasses.size()));
+			if (!glass.getIsDeadStateOperator().getState())
+				return glass;
+			
+			// The removed glasses are dropped once they're found
+			removeNonEmptyGlass(glass);
+		}
+		
+		return null;
+	}
 	
-	// SUBCLASSES	------------------
+	/**
+	 * @return How many of the glasses still have beverage in them
+	 */
+	public synchronized int getNonEmptyGlassAmount()
+	{
+		return this.nonEmptyGlasses.size();
+	}
 	
-	private class FindNearestGlassOperator extends HandlingOperator
+	/**
+	 * Updates the glass' location in the relay's spatial index. This should be called 
+	 * whenever a glass is created or moved.
+	 * @param glass The glass whose position should be updated
+	 */
+	public synchronized void updateGlassPosition(Glass glass)
 	{
-		// ATTRIBUTES	--------------
-		
-		private Vector3D searchPoint;
-		private Glass best;
-		private double shortestDistance;
-		private boolean acceptEmpty;
-		
-		
-		// CONSTRUCTOR	--------------
-		
-		public FindNearestGlassOperator(Vector3D searchPoint, boolean acceptEmpty)
+		if (glass.getTransformation() == null)
 		{
-			this.searchPoint = searchPoint;
-			this.best = null;
-			this.shortestDistance = 0;
-			this.acceptEmpty = acceptEmpty;
+			removeFromIndex(glass);
+			return;
 		}
 		
+		Vector3D position = glass.getTransformation().getPosition();
+		this.index.put(glass, position.getFirst(), position.getSecond());
 		
-		// IMPLEMENTED METHODS	-------
+		if (glass.getRadius() > this.largestRadius)
+			this.largestRadius = glass.getRadius();
 		
-		@Override
-		protected boolean handleObject(Glass h)
+		updateGlassContent(glass);
+	}
+	
+	/**
+	 * Updates the glass' status among the non-empty glasses. This should be called 
+	 * whenever a glass becomes empty.
+	 * @param glass The glass whose content has changed
+	 */
+	public synchronized void updateGlassContent(Glass glass)
+	{
+		if (glass.isEmpty() || glass.getTransformation() == null)
 		{
-			double distance = HelpMath.pointDistance2D(this.searchPoint, 
-					h.getTransformation().getPosition());
-			
-			if ((this.acceptEmpty || !h.isEmpty()) && (this.best == null || 
-					distance < this.shortestDistance))
-			{
-				this.best = h;
-				this.shortestDistance = distance;
-			}
-			
-			return true;
+			removeNonEmptyGlass(glass);
+			return;
 		}
 		
+		Vector3D position = glass.getTransformation().getPosition();
+		this.nonEmptyIndex.put(glass, position.getFirst(), position.getSecond());
+		if (glass.getRelayIndex() < 0)
+		{
+			glass.setRelayIndex(this.nonEmptyGlasses.size());
+			this.nonEmptyGlasses.add(glass);
+		}
+	}
+	
+	/**
+	 * Removes the glass from the relay's spatial index
+	 * @param glass The glass that is no longer searchable
+	 */
+	public synchronized void removeFromIndex(Glass glass)
+	{
+		this.index.remove(glass);
+		removeNonEmptyGlass(glass);
+	}
+	
+	/**
+	 * Rebuilds the spatial index from the glasses currently held in this relay
+	 */
+	public synchronized void rebuildIndex()
+	{
+		this.index.clear();
+		this.nonEmptyIndex.clear();
+		for (Glass glass : this.nonEmptyGlasses)
+		{
+			glass.setRelayIndex(-1);
+		}
+		this.nonEmptyGlasses.clear();
+		this.largestRadius = 0;
+		handleObjects(true);
+	}
+	
+	private void removeNonEmptyGlass(Glass glass)
+	{
+		int index = glass.getRelayIndex();
+		if (index < 0)
+			return;
 		
-		// ACCESSORS	---------------
+		this.nonEmptyIndex.remove(glass);
+		glass.setRelayIndex(-1);
 		
-		public Glass getClosestGlass()
+		// The last glass takes the removed glass' index
+		int last = this.nonEmptyGlasses.size() - 1;
+		Glass moved = this.nonEmptyGlasses.remove(last);
+		if (index != last)
 		{
-			return this.best;
+			this.nonEmptyGlasses.set(index, moved);
+			moved.setRelayIndex(index);
 		}
 	}
 	
+	
+	// SUBCLASSES	------------------
+	
 	private class ListGlassesOperator extends HandlingOperator
 	{
 		// ATTRIBUTES	--------------
@@ -0,0 +1,322 @@
+package dd_gameplay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import genesis_event.MouseEvent;
+import genesis_event.MouseEvent.MouseButton;
+import genesis_event.MouseEvent.MouseButtonEventScale;
+import genesis_event.MouseEvent.MouseButtonEventType;
+import genesis_event.MouseEvent.MouseMovementEventType;
+import genesis_util.Vector3D;
+
+/**
+ * InputLog records the input of a game session to a compact file and plays it back. The
+ * log starts with the random seed and the scene settings of the session. Each entry
+ * holds the amount of ticks passed since the previous entry, so an idle session takes
+ * hardly any space. The tick durations are only written when they change.
+ * @author agent
+ * @since 18.10.2026
+ * @see GameInput
+ */
+public class InputLog
+{
+	// ATTRIBUTES	--------------------
+	
+	/**
+	 * The version of the log format written by this class
+	 */
+	public static final short VERSION = 1;
+	
+	// "DDIN" in ASCII
+	private static final int MAGIC = 0x4444494E;
+	
+	private static final byte DURATION = 1;
+	private static final byte MOUSE = 2;
+	private static final byte END = 3;
+	
+	private static final MouseButtonEventType[] BUTTON_EVENT_TYPES = 
+			MouseButtonEventType.values();
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	private InputLog()
+	{
+		// The interface is static
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	private static void writeTickGap(DataOutputStream output, long ticks) throws IOException
+	{
+		// The tick difference is written 7 bits at a time
+		long value = ticks;
+		while ((value & ~0x7FL) != 0)
+		{
+			output.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		output.writeByte((int) value);
+	}
+	
+	private static long readTickGap(DataInputStream input) throws IOException
+	{
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7)
+		{
+			int b = input.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		
+		throw new IOException("Invalid tick in the input log");
+	}
+	
+	
+	// SUBCLASSES	--------------------
+	
+	/**
+	 * Recorder writes the input of a session to a log file
+	 * @author agent
+	 * @since 18.10.2026
+	 */
+	public static class Recorder
+	{
+		// ATTRIBUTES	----------------
+		
+		private DataOutputStream output;
+		private long lastTick;
+		private double lastDuration;
+		
+		
+		// CONSTRUCTOR	----------------
+		
+		/**
+		 * Starts a new recording. An existing file is replaced.
+		 * @param file The file the input is written to
+		 * @param seed The random seed the session uses
+		 * @param settings The settings the scene was created with. Empty if the default
+		 * scene is used.
+		 * @throws IOException If the file couldn't be opened
+		 */
+		public Recorder(Path file, long seed, String settings) throws IOException
+		{
+			this.output = new DataOutputStream(new BufferedOutputStream( 
+					Files.newOutputStream(file)));
+			this.lastTick = 0;
+			this.lastDuration = Double.NaN;
+			
+			this.output.writeInt(MAGIC);
+			this.output.writeShort(VERSION);
+			this.output.writeLong(seed);
+			this.output.writeUTF(settings);
+		}
+		
+		
+		// OTHER METHODS	------------
+		
+		/**
+		 * Records the duration of a tick. Nothing is written if the duration is the same
+		 * as in the previous tick.
+		 * @param tick The index of the tick
+		 * @param duration The duration of the tick (in steps)
+		 * @throws IOException If the duration couldn't be written
+		 */
+		public void recordDuration(long tick, double duration) throws IOException
+		{
+			if (Double.compare(duration, this.lastDuration) == 0)
+				return;
+			
+			startEntry(tick, DURATION);
+			this.output.writeDouble(duration);
+			this.lastDuration = duration;
+		}
+		
+		/**
+		 * Records a mouse event
+		 * @param tick The index of the tick the event is applied on
+		 * @param event The mouse event
+		 * @throws IOException If the event couldn't be written
+		 */
+		public void recordMouseEvent(long tick, MouseEvent event) throws IOException
+		{
+			startEntry(tick, MOUSE);
+			this.output.writeByte(event.getButtonEventType().ordinal());
+			this.output.writeDouble(event.getPosition().getFirst());
+			this.output.writeDouble(event.getPosition().getSecond());
+			this.output.writeDouble(event.getDuration());
+		}
+		
+		/**
+		 * Ends the recording and closes the file
+		 * @param ticks How many ticks the session lasted
+		 * @throws IOException If the file couldn't be written or closed
+		 */
+		public void close(long ticks) throws IOException
+		{
+			try
+			{
+				startEntry(ticks, END);
+			}
+			finally
+			{
+				this.output.close();
+			}
+		}
+		
+		private void startEntry(long tick, byte type) throws IOException
+		{
+			writeTickGap(this.output, tick - this.lastTick);
+			this.output.writeByte(type);
+			this.lastTick = tick;
+		}
+	}
+	
+	/**
+	 * Player reads a log file and feeds the recorded input back to the game, one tick at
+	 * a time
+	 * @author agent
+	 * @since 18.10.2026
+	 */
+	public static class Player
+	{
+		// ATTRIBUTES	----------------
+		
+		private DataInputStream input;
+		private long seed, nextTick;
+		private String settings;
+		private double duration;
+		private byte nextType;
+		
+		
+		// CONSTRUCTOR	----------------
+		
+		/**
+		 * Opens a log for playing
+		 * @param file The file the input is read from
+		 * @throws IOException If the file couldn't be read or isn't an input log
+		 */
+		public Player(Path file) throws IOException
+		{
+			this.input = new DataInputStream(new BufferedInputStream( 
+					Files.newInputStream(file)));
+			this.duration = 1;
+			this.nextTick = 0;
+			
+			try
+			{
+				if (this.input.readInt() != MAGIC)
+					throw new IOException(file + " is not an input log");
+				short version = this.input.readShort();
+				if (version != VERSION)
+					throw new IOException("Unsupported input log version " + version);
+				this.seed = this.input.readLong();
+				this.settings = this.input.readUTF();
+			}
+			catch (IOException e)
+			{
+				this.input.close();
+				throw e;
+			}
+			
+			readEntryStart();
+		}
+		
+		
+		// ACCESSORS	----------------
+		
+		/**
+		 * @return The random seed the recorded session used
+		 */
+		public long getSeed()
+		{
+			return this.seed;
+		}
+		
+		/**
+		 * @return The settings the recorded scene was created with. Empty if the default
+		 * scene was used.
+		 */
+		public String getSettings()
+		{
+			return this.settings;
+		}
+		
+		
+		// OTHER METHODS	------------
+		
+		/**
+		 * @param tick The index of a tick
+		 * @return Has the recording ended before the given tick
+		 */
+		public boolean hasEnded(long tick)
+		{
+			return this.nextType == END && tick >= this.nextTick;
+		}
+		
+		/**
+		 * Reads the input of a single tick and queues the recorded mouse events
+		 * @param tick The index of the tick
+		 * @param gameInput The input collector the mouse events are queued to
+		 * @return The duration of the tick (in steps)
+		 * @throws IOException If the log couldn't be read
+		 */
+		public double readTick(long tick, GameInput gameInput) throws IOException
+		{
+			while (this.nextType != END && this.nextTick == tick)
+			{
+				if (this.nextType == DURATION)
+					this.duration = this.input.readDouble();
+				else if (this.nextType == MOUSE)
+				{
+					int typeIndex = this.input.readUnsignedByte();
+					if (typeIndex >= BUTTON_EVENT_TYPES.length)
+						throw new IOException("Invalid mouse event type " + typeIndex);
+					Vector3D position = new Vector3D(this.input.readDouble(), 
+							this.input.readDouble());
+					gameInput.queue(new MouseEvent(MouseMovementEventType.NONE, 
+							BUTTON_EVENT_TYPES[typeIndex], MouseButton.LEFT, 
+							MouseButtonEventScale.LOCAL, position, this.input.readDouble()));
+				}
+				else
+					throw new IOException("Invalid input log entry " + this.nextType);
+				
+				readEntryStart();
+			}
+			
+			return this.duration;
+		}
+		
+		/**
+		 * Closes the log file
+		 * @throws IOException If the file couldn't be closed
+		 */
+		public void close() throws IOException
+		{
+			this.input.close();
+		}
+		
+		private void readEntryStart() throws IOException
+		{
+			try
+			{
+				this.nextTick += readTickGap(this.input);
+				this.nextType = this.input.readByte();
+			}
+			catch (EOFException e)
+			{
+				// A log without an end (from a crashed session) ends at its last entry
+				this.nextType = END;
+			}
+		}
+	}
+}
@@ -129,8 +129,15 @@ public class JumpArrow extends SimpleHandled implements Drawable, MouseListener
 	
 	private void updateVisibility()
 	{
+		boolean visible = this.start != null && this.end != null;
 		getHandlingOperators().getShouldBeHandledOperator(
-				GenesisHandlerType.DRAWABLEHANDLER).setState(this.start != null && 
-				this.end != null);
+				GenesisHandlerType.DRAWABLEHANDLER).setState(visible);
+		
+		// The dolphins at the ends of the arrow are drawn in detail
+		if (visible)
+			LevelOfDetail.setArrow(this.start.getTransformation().getPosition(), 
+					this.end.getTransformation().getPosition());
+		else
+			LevelOfDetail.setArrow(null, null);
 	}
 }
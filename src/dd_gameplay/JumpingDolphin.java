@@ -1,18 +1,12 @@
 package dd_gameplay;
 
-import java.awt.Graphics2D;
-import java.awt.geom.AffineTransform;
-import java.util.Random;
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
 
 import dd_main.DDHandlerType;
 import dd_main.Main;
-import genesis_event.Actor;
-import genesis_event.Drawable;
-import genesis_event.HandlerRelay;
-import genesis_util.DepthConstants;
+import genesis_event.MouseEvent;
 import genesis_util.HelpMath;
-import genesis_util.SimpleHandled;
-import genesis_util.Transformable;
 import genesis_util.Transformation;
 import genesis_util.Vector3D;
 
@@ -21,55 +15,71 @@ import genesis_util.Vector3D;
  * @author Huoltokyttis
  *
  */
-public class JumpingDolphin extends SimpleHandled implements Drawable,
-		Transformable, Actor
+public class JumpingDolphin implements DolphinState
 {
 	// ATTRIBUTES	---------------------
 	
 	private Transformation transformation;
-	private DolphinData data;
-	private Vector3D velocity;
-	private HandlerRelay handlers;
+	private Dolphin dolphin;
+	private Vector3D start, horizontalVelocity;
+	private double verticalSpeed, gravity, flightTime, landingTime;
 	
 	private static int flyTime = 100;
-	private static Random random = new Random();
 	
 	
 	// CONSTRUCTOR	---------------------
 	
 	/**
-	 * Creates a new dolphin that jumps from the starting point to the end point
-	 * @param handlers The handlers that will handle the dolphin
-	 * @param data The dolphin's data
+	 * Creates a new state for a dolphin that jumps from the starting point to the end point
+	 * @param dolphin The dolphin that jumps
 	 * @param start The start point of the jump
 	 * @param end The end point of the jump
 	 */
-	public JumpingDolphin(HandlerRelay handlers, DolphinData data, Vector3D start, 
-			Vector3D end)
+	JumpingDolphin(Dolphin dolphin, Vector3D start, Vector3D end)
 	{
-		super(handlers);
-		
-		this.transformation = new Transformation(start);
-		this.data = data;
-		this.handlers = handlers;
+		this.start = start.in2D();
+		this.dolphin = dolphin;
+		this.flightTime = 0;
+		this.transformation = null;
 		
 		// Vxy = d / t
 		// Vz = Gt/2
 		Vector3D horizontalVelocity = end.minus(start).dividedBy(flyTime);
 		// Drunkness affects horizontal velocity
+		SplittableRandom random = GameRandom.get();
 		double missAngle = -getData().getDrunkness() * 0.25 + 
 				random.nextDouble() * getData().getDrunkness() * 0.5;
 		double missSpeed = random.nextDouble() * getData().getDrunkness() * 0.01;
 		if (random.nextDouble() < 0.5)
 			missSpeed *= -1;
-		horizontalVelocity = HelpMath.lenDir(horizontalVelocity.getLength() * (1 + missSpeed), 
-				horizontalVelocity.getZDirection() + missAngle);
-		
-		Vector3D verticalVelocity = new Vector3D(0, 0, Main.gravity * flyTime / 2);
-		this.velocity = horizontalVelocity.plus(verticalVelocity);
+		this.horizontalVelocity = HelpMath.lenDir(horizontalVelocity.getLength() * 
+				(1 + missSpeed), horizontalVelocity.getZDirection() + missAngle);
 		
-		Transformable.transform(this, Transformation.rotationTransformation(
-				horizontalVelocity.getZDirection()));
+		// The flight is determined by gravity alone, so the landing time and the landing 
+		// point are already known. The glass at the landing point is only searched once 
+		// the dolphin lands.
+		this.gravity = Main.gravity;
+		this.verticalSpeed = this.gravity * flyTime / 2;
+		this.landingTime = 2 * this.verticalSpeed / this.gravity;
+	}
+	
+	
+	/**
+	 * Restores a flight written in the world snapshot format
+	 * @param dolphin The dolphin that jumps
+	 * @param buffer The buffer the state is read from
+	 * @see WorldSnapshot
+	 */
+	JumpingDolphin(Dolphin dolphin, ByteBuffer buffer)
+	{
+		this.dolphin = dolphin;
+		this.start = new Vector3D(buffer.getDouble(), buffer.getDouble());
+		this.horizontalVelocity = new Vector3D(buffer.getDouble(), buffer.getDouble());
+		this.verticalSpeed = buffer.getDouble();
+		this.gravity = buffer.getDouble();
+		this.flightTime = buffer.getDouble();
+		this.landingTime = buffer.getDouble();
+		this.transformation = null;
 	}
 	
 	
@@ -78,44 +88,56 @@ public class JumpingDolphin extends SimpleHandled implements Drawable,
 	@Override
 	public void act(double duration)
 	{
-		// Applies gravity and velocity
-		Transformable.transform(this, Transformation.transitionTransformation(
-				this.velocity.times(duration)));
-		this.velocity = this.velocity.plus(new Vector3D(0, 0, -Main.gravity * duration));
-		
-		// Scales the fish according to height
-		double scale = 1 + getTransformation().getPosition().getThird() * 0.003;
-		setTrasformation(getTransformation().withScaling(new Vector3D(scale, scale)));
+		fly(duration);
 		
 		// The fish stops once it hits the ground
-		if (getTransformation().getPosition().getThird() < 0)
+		if (hasHitTheGround())
 			land();
 	}
 
 	@Override
 	public Transformation getTransformation()
 	{
+		if (this.transformation == null)
+		{
+			// Scales the fish according to height
+			double height = this.verticalSpeed * this.flightTime - 
+					this.gravity * this.flightTime * this.flightTime / 2;
+			double scale = 1 + height * 0.003;
+			
+			this.transformation = new Transformation(getPositionAt(this.flightTime).plus(
+					new Vector3D(0, 0, height)), new Vector3D(scale, scale), 
+					Vector3D.zeroVector(), this.horizontalVelocity.getZDirection());
+		}
+		
 		return this.transformation;
 	}
 
 	@Override
 	public void setTrasformation(Transformation t)
 	{
+		// The rest of the flight continues from the new position
+		this.start = this.start.plus(t.getPosition().minus(
+				getTransformation().getPosition()).in2D());
 		this.transformation = t;
 	}
 
 	@Override
-	public void drawSelf(Graphics2D g2d)
+	public boolean isInAreaOfInterest(Vector3D position)
 	{
-		AffineTransform lastTransform = getTransformation().transform(g2d);
-		getData().draw(g2d);
-		g2d.setTransform(lastTransform);
+		return false;
 	}
 
 	@Override
-	public int getDepth()
+	public void onMouseEvent(MouseEvent event)
+	{
+		// Jumping dolphins don't react to the mouse
+	}
+	
+	@Override
+	public void leave()
 	{
-		return DepthConstants.FOREGROUND;
+		// The jumping state doesn't need to be cleaned up
 	}
 
 	
@@ -126,39 +148,108 @@ public class JumpingDolphin extends SimpleHandled implements Drawable,
 	 */
 	public DolphinData getData()
 	{
-		return this.data;
+		return this.dolphin.getData();
 	}
 	
 	
 	// OTHER METHODS	---------------
 	
-	private void land()
+	/**
+	 * Moves the dolphin along its flight path. The dolphin doesn't land even if it hits 
+	 * the ground, which makes this safe to call concurrently for different dolphins.
+	 * @param duration How long the dolphin flies (in steps)
+	 */
+	void fly(double duration)
+	{
+		// The position is calculated from the flight time when it's needed
+		this.flightTime += duration;
+		this.transformation = null;
+	}
+	
+	/**
+	 * @return Has the dolphin reached the end of its flight
+	 */
+	boolean hasHitTheGround()
+	{
+		return this.flightTime >= this.landingTime;
+	}
+	
+	/**
+	 * Writes the state in the world snapshot format
+	 * @param buffer The buffer the state is written to
+	 * @see WorldSnapshot
+	 */
+	void writeTo(ByteBuffer buffer)
+	{
+		buffer.putDouble(this.start.getFirst());
+		buffer.putDouble(this.start.getSecond());
+		buffer.putDouble(this.horizontalVelocity.getFirst());
+		buffer.putDouble(this.horizontalVelocity.getSecond());
+		buffer.putDouble(this.verticalSpeed);
+		buffer.putDouble(this.gravity);
+		buffer.putDouble(this.flightTime);
+		buffer.putDouble(this.landingTime);
+	}
+	
+	/**
+	 * @return The point where the dolphin's flight ends
+	 */
+	Vector3D getLandingPosition()
+	{
+		return getPositionAt(this.landingTime);
+	}
+	
+	/**
+	 * @return The glass relay that holds the glasses the dolphin may land in
+	 */
+	GlassRelay getGlassRelay()
+	{
+		return (GlassRelay) this.dolphin.getHandlers().getHandler(DDHandlerType.GLASSRELAY);
+	}
+	
+	private Vector3D getPositionAt(double time)
+	{
+		return this.start.plus(this.horizontalVelocity.times(time));
+	}
+	
+	/**
+	 * Ends the flight, making the dolphin either swim in the glass at the landing point or 
+	 * lie stranded
+	 * @see LandingBatch
+	 */
+	void land()
+	{
+		land(getGlassRelay().getGlassAtPosition(getLandingPosition()));
+	}
+	
+	/**
+	 * Ends the flight, making the dolphin either swim in the target glass or lie stranded
+	 * @param target The glass at the landing point. Null if there is no glass there.
+	 */
+	void land(Glass target)
 	{
 		// If there is a glass, starts swimming
-		//System.out.println(this.handlers.containsHandlerOfType(DDHandlerType.GLASSRELAY));
-		GlassRelay glassRelay = 
-				(GlassRelay) this.handlers.getHandler(DDHandlerType.GLASSRELAY);
-		Glass target = glassRelay.getGlassAtPosition(getTransformation().getPosition());
+		Vector3D position = getLandingPosition();
 		
 		if (target != null && !target.isEmpty())
 		{
-			Vector3D position = getTransformation().getPosition();
 			Vector3D relativePos = target.getTransformation().inverseTransform(position);
-			Vector3D directionalVelocity = this.velocity.vectorProjection(Vector3D.unitVector(
-					HelpMath.pointDirection(target.getTransformation().getPosition(), position
-					) + 90));
+			Vector3D directionalVelocity = this.horizontalVelocity.vectorProjection(
+					Vector3D.unitVector(HelpMath.pointDirection(
+					target.getTransformation().getPosition(), position) + 90));
 			double speed = directionalVelocity.getLength();
-			if (HelpMath.getAngleDifference180(this.velocity.getZDirection(), 
+			if (HelpMath.getAngleDifference180(this.horizontalVelocity.getZDirection(), 
 					directionalVelocity.getZDirection()) > 90)
 				speed *= -1;
 			
-			new SwimmingDolphin(this.handlers, this.data, relativePos, speed, target);
+			GameMetrics.record(GameMetrics.Event.LANDING);
+			target.addDolphin(this.dolphin, relativePos, speed);
 		}
 		// Otherwise gets stranded
 		else
-			new StrandedDolphin(this.handlers, getData(), 
-					getTransformation().getPosition().in2D(), getTransformation().getAngle());
-		
-		getIsDeadStateOperator().setState(true);
+		{
+			GameMetrics.record(GameMetrics.Event.STRANDING);
+			this.dolphin.strand(position, this.horizontalVelocity.getZDirection());
+		}
 	}
 }
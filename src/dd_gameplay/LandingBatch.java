@@ -0,0 +1,127 @@
+package dd_gameplay;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import genesis_util.Vector3D;
+
+/**
+ * LandingBatch gathers the dolphins that land during a tick and lands them all at once.
+ * The glasses at the landing points are searched in a single sweep and each glass is
+ * prepared for all of its new dolphins at once, so even a mass relocation only costs a
+ * single pass. The dolphins are landed in the order they were added. The dolphins that 
+ * miss the glasses are stranded one by one, since they don't share any structure that 
+ * could be prepared in advance.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class LandingBatch
+{
+	// ATTRIBUTES	--------------------
+	
+	private static final Beverage[] BEVERAGES = Beverage.values();
+	
+	private List<JumpingDolphin> jumpers;
+	private double[] xs, ys;
+	private Glass[] targets;
+	private Map<Glass, int[]> arrivals;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new empty batch
+	 */
+	public LandingBatch()
+	{
+		this.jumpers = new ArrayList<>();
+		this.xs = new double[16];
+		this.ys = new double[16];
+		this.targets = new Glass[16];
+		this.arrivals = new IdentityHashMap<>();
+	}
+	
+	
+	// ACCESSORS	--------------------
+	
+	/**
+	 * @return How many dolphins are waiting to land
+	 */
+	public int size()
+	{
+		return this.jumpers.size();
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Adds a dolphin that has reached the end of its flight to the batch. This mustn't be
+	 * called concurrently.
+	 * @param jumper The dolphin that lands
+	 */
+	void add(JumpingDolphin jumper)
+	{
+		this.jumpers.add(jumper);
+	}
+	
+	/**
+	 * Lands all the dolphins in the batch and empties it. The dolphins in a batch should
+	 * share the same glass relay.
+	 */
+	public void landAll()
+	{
+		int amount = this.jumpers.size();
+		if (amount == 0)
+			return;
+		
+		if (this.xs.length < amount)
+		{
+			int capacity = amount * 2;
+			this.xs = new double[capacity];
+			this.ys = new double[capacity];
+			this.targets = new Glass[capacity];
+		}
+		
+		for (int i = 0; i < amount; i++)
+		{
+			Vector3D position = this.jumpers.get(i).getLandingPosition();
+			this.xs[i] = position.getFirst();
+			this.ys[i] = position.getSecond();
+		}
+		this.jumpers.get(0).getGlassRelay().getGlassesAtPositions(this.xs, this.ys, amount, 
+				this.targets);
+		
+		// The glasses are prepared for the new dolphins before any of them arrive. The 
+		// dolphins are counted by the beverage they drink.
+		for (int i = 0; i < amount; i++)
+		{
+			Glass target = this.targets[i];
+			if (target == null || target.isEmpty())
+				continue;
+			
+			int[] arrivals = this.arrivals.get(target);
+			if (arrivals == null)
+			{
+				arrivals = new int[BEVERAGES.length];
+				this.arrivals.put(target, arrivals);
+			}
+			arrivals[this.jumpers.get(i).getData().getDrinkType().ordinal()] ++;
+		}
+		for (Map.Entry<Glass, int[]> entry : this.arrivals.entrySet())
+		{
+			entry.getKey().reserveDolphins(entry.getValue());
+		}
+		
+		for (int i = 0; i < amount; i++)
+		{
+			this.jumpers.get(i).land(this.targets[i]);
+			this.targets[i] = null;
+		}
+		
+		this.jumpers.clear();
+		this.arrivals.clear();
+	}
+}
@@ -0,0 +1,179 @@
+package dd_gameplay;
+
+import genesis_util.HelpMath;
+import genesis_util.Transformation;
+import genesis_util.Vector3D;
+
+/**
+ * LevelOfDetail decides which glasses are too crowded to draw each dolphin separately. A
+ * crowded glass is drawn as beverage shares instead, and only the dolphins near the focus
+ * points (the cursor and the ends of the jump arrow) are drawn individually. The limits
+ * and the focus points are shared by the whole game, while each instance holds the focus
+ * points in a single glass' coordinate system.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class LevelOfDetail
+{
+	// ATTRIBUTES	--------------------
+	
+	private static volatile int maxDetailedDolphins = 500;
+	private static volatile double maxDensity = 1.0 / 256;
+	private static volatile double focusRadius = 96;
+	private static volatile Vector3D cursor = null;
+	private static volatile Vector3D[] arrow = new Vector3D[0];
+	
+	// Each focus point is stored as x, y and its distance from the glass' center
+	private double[] focus;
+	private int focusAmount;
+	private double radius;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new focus holder. {@link #localize(Transformation, double)} must be called
+	 * before the holder is used.
+	 */
+	public LevelOfDetail()
+	{
+		this.focus = new double[9];
+		this.focusAmount = 0;
+		this.radius = 0;
+	}
+	
+	
+	// ACCESSORS	--------------------
+	
+	/**
+	 * @param maxDolphins How many dolphins a glass may have before it is drawn as a crowd
+	 */
+	public static void setMaxDolphins(int maxDolphins)
+	{
+		LevelOfDetail.maxDetailedDolphins = maxDolphins;
+	}
+	
+	/**
+	 * @param maxDensity How many dolphins there may be per square pixel of content before
+	 * the glass is drawn as a crowd
+	 */
+	public static void setMaxDensity(double maxDensity)
+	{
+		LevelOfDetail.maxDensity = maxDensity;
+	}
+	
+	/**
+	 * @param radius How far from the focus points the dolphins are still drawn individually
+	 */
+	public static void setFocusRadius(double radius)
+	{
+		LevelOfDetail.focusRadius = radius;
+	}
+	
+	/**
+	 * Moves the cursor focus point
+	 * @param position The position of the cursor. Null if the cursor shouldn't be focused.
+	 */
+	public static void setCursor(Vector3D position)
+	{
+		LevelOfDetail.cursor = position;
+	}
+	
+	/**
+	 * Changes the arrow focus points
+	 * @param start The start point of the arrow. Null if there is no arrow.
+	 * @param end The end point of the arrow. Null if there is no arrow.
+	 */
+	public static void setArrow(Vector3D start, Vector3D end)
+	{
+		if (start == null || end == null)
+			LevelOfDetail.arrow = new Vector3D[0];
+		else
+			LevelOfDetail.arrow = new Vector3D[] {start, end};
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * @param dolphinAmount The amount of dolphins in a glass
+	 * @param contentRadius The radius of the glass' content
+	 * @return Should the glass be drawn as a crowd
+	 */
+	public static boolean isCrowded(int dolphinAmount, int contentRadius)
+	{
+		if (dolphinAmount > maxDetailedDolphins)
+			return true;
+		return dolphinAmount > maxDensity * Math.PI * contentRadius * contentRadius;
+	}
+	
+	/**
+	 * Finds the focus points that are close enough to a glass and moves them to the
+	 * glass' coordinate system
+	 * @param glassTransformation The transformation of the glass
+	 * @param reach How far from the glass' center the dolphins can be
+	 */
+	public void localize(Transformation glassTransformation, double reach)
+	{
+		this.focusAmount = 0;
+		this.radius = focusRadius;
+		
+		addFocus(glassTransformation, cursor, reach);
+		for (Vector3D point : arrow)
+		{
+			addFocus(glassTransformation, point, reach);
+		}
+	}
+	
+	/**
+	 * @param localPosition A position in the glass' coordinate system
+	 * @return Is the position near a focus point
+	 */
+	public boolean isNearFocus(Vector3D localPosition)
+	{
+		for (int i = 0; i < this.focusAmount; i++)
+		{
+			int start = i * 3;
+			double dx = localPosition.getFirst() - this.focus[start];
+			double dy = localPosition.getSecond() - this.focus[start + 1];
+			if (dx * dx + dy * dy <= this.radius * this.radius)
+				return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * @param distance How far from the glass' center the position is
+	 * @param angle The direction of the position from the glass' center
+	 * @return Is the position near a focus point
+	 */
+	public boolean isNearFocus(double distance, double angle)
+	{
+		// Most positions can be rejected without calculating them
+		for (int i = 0; i < this.focusAmount; i++)
+		{
+			if (Math.abs(distance - this.focus[i * 3 + 2]) <= this.radius)
+				return isNearFocus(HelpMath.lenDir(distance, angle));
+		}
+		
+		return false;
+	}
+	
+	private void addFocus(Transformation glassTransformation, Vector3D point, double reach)
+	{
+		if (point == null)
+			return;
+		
+		Vector3D localPoint = glassTransformation.inverseTransform(point);
+		double distance = localPoint.getLength();
+		if (distance > reach + this.radius)
+			return;
+		
+		int start = this.focusAmount * 3;
+		this.focus[start] = localPoint.getFirst();
+		this.focus[start + 1] = localPoint.getSecond();
+		this.focus[start + 2] = distance;
+		this.focusAmount ++;
+	}
+}
@@ -0,0 +1,183 @@
+package dd_gameplay;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dd_main.DDHandlerType;
+import genesis_event.EventSelector;
+import genesis_event.Handler;
+import genesis_event.HandlerType;
+import genesis_event.MouseEvent;
+import genesis_event.MouseEvent.MouseButtonEventScale;
+import genesis_event.MouseEvent.MouseButtonEventType;
+import genesis_event.MouseListener;
+import genesis_event.MultiEventSelector;
+import genesis_event.StrictEventSelector;
+import genesis_util.Vector3D;
+
+/**
+ * MouseHitTester keeps the mouse targets in a spatial index and passes the mouse events
+ * only to the targets near the mouse. The tester is the only listener that receives the
+ * mouse events, no matter how many targets there are.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class MouseHitTester extends Handler<MouseTarget> implements MouseListener
+{
+	// ATTRIBUTES	--------------------
+	
+	private static final double CELL_SIZE = 128;
+	
+	private SpatialGrid<MouseTarget> index;
+	private double largestRadius;
+	private List<MouseTarget> hits, heldTargets;
+	private EventSelector<MouseEvent> selector;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new hit tester. The tester doesn't listen to the mouse on its own, the
+	 * mouse events must be passed to it.
+	 * @see GameInput
+	 */
+	public MouseHitTester()
+	{
+		super(false);
+		
+		this.index = new SpatialGrid<>(CELL_SIZE);
+		this.largestRadius = 0;
+		this.hits = new ArrayList<>();
+		this.heldTargets = new ArrayList<>();
+		
+		// Listens to the local presses and holds, as well as all releases
+		MultiEventSelector<MouseEvent> selector = new MultiEventSelector<>();
+		StrictEventSelector<MouseEvent, MouseEvent.Feature> localPress = 
+				MouseEvent.createButtonEventTypeSelector(MouseButtonEventType.PRESSED);
+		localPress.addRequiredFeature(MouseButtonEventScale.LOCAL);
+		selector.addOption(localPress);
+		StrictEventSelector<MouseEvent, MouseEvent.Feature> localDown = 
+				MouseEvent.createButtonEventTypeSelector(MouseButtonEventType.DOWN);
+		localDown.addRequiredFeature(MouseButtonEventScale.LOCAL);
+		selector.addOption(localDown);
+		selector.addOption(MouseEvent.createButtonEventTypeSelector( 
+				MouseButtonEventType.RELEASED));
+		
+		this.selector = selector;
+	}
+	
+	
+	// IMPLEMENTED METHODS	------------
+	
+	@Override
+	public HandlerType getHandlerType()
+	{
+		return DDHandlerType.MOUSEHITTESTER;
+	}
+	
+	@Override
+	protected boolean handleObject(MouseTarget h)
+	{
+		// Indexes each target again
+		updatePosition(h);
+		return true;
+	}
+	
+	@Override
+	public EventSelector<MouseEvent> getMouseEventSelector()
+	{
+		return this.selector;
+	}
+	
+	@Override
+	public boolean isInAreaOfInterest(Vector3D position)
+	{
+		this.hits.clear();
+		findTargets(position, this.hits);
+		return !this.hits.isEmpty();
+	}
+	
+	@Override
+	public void onMouseEvent(MouseEvent event)
+	{
+		this.hits.clear();
+		findTargets(event.getPosition(), this.hits);
+		
+		for (MouseTarget target : this.hits)
+		{
+			if (target.getMouseEventSelector().selects(event))
+			{
+				target.onMouseEvent(event);
+				if (!this.heldTargets.contains(target))
+					this.heldTargets.add(target);
+			}
+		}
+		
+		// The targets that were pressed are informed about the release, even if the
+		// mouse has moved away from them
+		if (event.getButtonEventType() == MouseButtonEventType.RELEASED)
+		{
+			for (MouseTarget target : this.heldTargets)
+			{
+				if (!this.hits.contains(target) && !target.getIsDeadStateOperator().getState() && 
+						target.getMouseEventSelector().selects(event))
+					target.onMouseEvent(event);
+			}
+			this.heldTargets.clear();
+		}
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Updates the target's location in the index. This should be called whenever a target
+	 * starts listening to the mouse or moves.
+	 * @param target The target whose position is updated
+	 */
+	public synchronized void updatePosition(MouseTarget target)
+	{
+		if (target.getTransformation() == null)
+			return;
+		
+		Vector3D position = target.getTransformation().getPosition();
+		this.index.put(target, position.getFirst(), position.getSecond());
+		if (target.getHitRadius() > this.largestRadius)
+			this.largestRadius = target.getHitRadius();
+	}
+	
+	/**
+	 * Removes a target from the index. The target won't receive mouse events anymore.
+	 * @param target The target that is removed
+	 */
+	public synchronized void removeFromIndex(MouseTarget target)
+	{
+		this.index.remove(target);
+	}
+	
+	/**
+	 * Finds the targets at the given position
+	 * @param position The position of the mouse
+	 * @param result The list the targets are added to
+	 */
+	public synchronized void findTargets(Vector3D position, List<MouseTarget> result)
+	{
+		// Only the cells that may contain a target reaching the position are checked
+		int range = (int) Math.ceil(this.largestRadius / this.index.getCellSize());
+		int cellX = this.index.toCellIndex(position.getFirst());
+		int cellY = this.index.toCellIndex(position.getSecond());
+		
+		for (int x = cellX - range; x <= cellX + range; x++)
+		{
+			for (int y = cellY - range; y <= cellY + range; y++)
+			{
+				for (MouseTarget target : this.index.getCell(x, y))
+				{
+					if (!target.getIsDeadStateOperator().getState() && 
+							target.isInAreaOfInterest(position))
+						result.add(target);
+				}
+			}
+		}
+	}
+}
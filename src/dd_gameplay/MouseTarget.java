@@ -0,0 +1,18 @@
+package dd_gameplay;
+
+import genesis_event.MouseListener;
+import genesis_util.Transformable;
+
+/**
+ * MouseTargets are mouse listeners that occupy a circular area on the table. They can be
+ * found by their position, so that only the targets near the mouse need to be checked.
+ * @author agent
+ * @since 18.10.2026
+ */
+public interface MouseTarget extends MouseListener, Transformable
+{
+	/**
+	 * @return How far from its position the target can be hit with the mouse
+	 */
+	public double getHitRadius();
+}
@@ -0,0 +1,517 @@
+package dd_gameplay;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import genesis_util.Transformation;
+import genesis_util.Vector3D;
+
+/**
+ * RenderSnapshot holds everything that is needed for drawing a single simulation tick:
+ * the glasses, their fill and the positions and looks of the dolphins. The data is copied
+ * to primitive arrays so that the snapshot can be drawn while the simulation continues.
+ * A snapshot is only written by the simulation and, once published, only read by the
+ * renderer. The dolphins can be drawn between two consecutive snapshots, in which case 
+ * their matrices are interpolated. The dolphins are matched between the snapshots by their 
+ * owners, so they can change their order freely. The glasses that are too crowded are recorded as 
+ * beverage shares instead of separate dolphins (see {@link LevelOfDetail}).
+ * @author agent
+ * @since 18.10.2026
+ */
+public class RenderSnapshot
+{
+	// ATTRIBUTES	--------------------
+	
+	private static final int MATRIX_SIZE = 6;
+	private static final Beverage[] BEVERAGES = Beverage.values();
+	private static final Color[] CROWD_COLORS = createCrowdColors();
+	
+	private int glassAmount, dolphinAmount;
+	private double[] glassMatrices, dolphinMatrices;
+	private int[] glassRadii, contentRadii, dolphinSprites, crowdSizes, crowdShares;
+	private byte[] glassBeverages;
+	private boolean[] dolphinsInAir;
+	private Object[] dolphinOwners;
+	// The dolphins' indices by their owners, in an open addressing hash table
+	private Object[] ownerTable;
+	private int[] ownerIndices;
+	
+	// These are only used by the simulation
+	private double[] matrix, parentMatrix;
+	private Transformation matrixParent;
+	private LevelOfDetail focus;
+	
+	// These are only used by the renderer
+	private AffineTransform entryTransform, drawTransform;
+	private double[] blendedMatrix;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new empty snapshot
+	 */
+	public RenderSnapshot()
+	{
+		this.glassMatrices = new double[16 * MATRIX_SIZE];
+		this.glassRadii = new int[16];
+		this.contentRadii = new int[16];
+		this.glassBeverages = new byte[16];
+		this.crowdSizes = new int[16];
+		this.crowdShares = new int[16 * BEVERAGES.length];
+		this.dolphinMatrices = new double[64 * MATRIX_SIZE];
+		this.dolphinSprites = new int[64];
+		this.dolphinsInAir = new boolean[64];
+		this.dolphinOwners = new Object[64];
+		this.ownerTable = new Object[128];
+		this.ownerIndices = new int[128];
+		
+		this.matrix = new double[MATRIX_SIZE];
+		this.parentMatrix = new double[MATRIX_SIZE];
+		this.focus = new LevelOfDetail();
+		this.entryTransform = new AffineTransform();
+		this.drawTransform = new AffineTransform();
+		this.blendedMatrix = new double[MATRIX_SIZE];
+		
+		clear();
+	}
+	
+	
+	// ACCESSORS	--------------------
+	
+	/**
+	 * @return How many glasses there are in the snapshot
+	 */
+	public int getGlassAmount()
+	{
+		return this.glassAmount;
+	}
+	
+	/**
+	 * @return How many dolphins there are in the snapshot
+	 */
+	public int getDolphinAmount()
+	{
+		return this.dolphinAmount;
+	}
+	
+	
+	/**
+	 * @param index The index of a glass
+	 * @return The radius of the glass
+	 */
+	int getGlassRadius(int index)
+	{
+		return this.glassRadii[index];
+	}
+	
+	/**
+	 * @param index The index of a glass
+	 * @return The radius of the glass' content
+	 */
+	int getContentRadius(int index)
+	{
+		return this.contentRadii[index];
+	}
+	
+	/**
+	 * @param index The index of a glass
+	 * @return The ordinal of the glass' beverage. -1 if the glass is empty.
+	 */
+	byte getGlassBeverage(int index)
+	{
+		return this.glassBeverages[index];
+	}
+	
+	/**
+	 * Copies the matrix of a glass
+	 * @param index The index of a glass
+	 * @param result The array the matrix is copied to
+	 */
+	void getGlassMatrix(int index, double[] result)
+	{
+		System.arraycopy(this.glassMatrices, index * MATRIX_SIZE, result, 0, MATRIX_SIZE);
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Empties the snapshot so that a new tick can be written into it
+	 */
+	public void clear()
+	{
+		// The game objects are not held after they are no longer drawn
+		Arrays.fill(this.dolphinOwners, 0, this.dolphinAmount, null);
+		Arrays.fill(this.ownerTable, null);
+		this.matrixParent = null;
+		
+		this.glassAmount = 0;
+		this.dolphinAmount = 0;
+	}
+	
+	/**
+	 * Records a glass and the dolphins swimming in it. If the glass is crowded, only the 
+	 * dolphins near the focus points are recorded separately.
+	 * @param glass The glass that is recorded
+	 */
+	public void addGlass(Glass glass)
+	{
+		if (this.glassAmount == this.glassRadii.length)
+		{
+			int capacity = this.glassAmount * 2;
+			this.glassMatrices = Arrays.copyOf(this.glassMatrices, capacity * MATRIX_SIZE);
+			this.glassRadii = Arrays.copyOf(this.glassRadii, capacity);
+			this.contentRadii = Arrays.copyOf(this.contentRadii, capacity);
+			this.glassBeverages = Arrays.copyOf(this.glassBeverages, capacity);
+			this.crowdSizes = Arrays.copyOf(this.crowdSizes, capacity);
+			this.crowdShares = Arrays.copyOf(this.crowdShares, capacity * BEVERAGES.length);
+		}
+		
+		int i = this.glassAmount;
+		Transformation glassTransformation = glass.getTransformation();
+		writeMatrix(this.glassMatrices, i, glassTransformation, null);
+		this.glassRadii[i] = glass.getRadius();
+		this.contentRadii[i] = glass.getContentRadius();
+		this.glassBeverages[i] = (byte) (glass.isEmpty() ? -1 : glass.getBeverage().ordinal());
+		this.crowdSizes[i] = 0;
+		this.glassAmount ++;
+		
+		if (LevelOfDetail.isCrowded(glass.getHandler().getDolphinAmount(), 
+				this.contentRadii[i]))
+		{
+			Arrays.fill(this.crowdShares, i * BEVERAGES.length, (i + 1) * BEVERAGES.length, 0);
+			this.focus.localize(glassTransformation, glass.getRadius());
+			glass.getHandler().addCrowdTo(this, glassTransformation, this.focus);
+		}
+		else
+			glass.getHandler().addDolphinsTo(this, glassTransformation);
+	}
+	
+	/**
+	 * Records a share of the crowd in the latest recorded glass
+	 * @param beverage The ordinal of the beverage the dolphins drink
+	 * @param amount The amount of dolphins drinking the beverage
+	 */
+	public void addCrowdShare(int beverage, int amount)
+	{
+		int i = this.glassAmount - 1;
+		this.crowdShares[i * BEVERAGES.length + beverage] += amount;
+		this.crowdSizes[i] += amount;
+	}
+	
+	/**
+	 * Records a dolphin that is not swimming in a glass
+	 * @param dolphin The dolphin that is recorded
+	 */
+	public void addDolphin(Dolphin dolphin)
+	{
+		DolphinData data = dolphin.getData();
+		addDolphin(dolphin, null, dolphin.getTransformation(), DolphinSprites.getSpriteIndex( 
+				data.getDrinkType(), data.getDrunkness()), 
+				dolphin.getState() instanceof JumpingDolphin);
+	}
+	
+	/**
+	 * Records a dolphin
+	 * @param owner The object that represents the dolphin. The dolphin is interpolated 
+	 * between two snapshots if it has the same owner in both. Each dolphin should have a 
+	 * different owner.
+	 * @param parent The transformation the dolphin's transformation is relative to. Null if
+	 * the dolphin's transformation is absolute.
+	 * @param transformation The dolphin's transformation
+	 * @param spriteIndex The index of the dolphin's sprite
+	 * @param inAir Is the dolphin in the air, above the other objects
+	 */
+	public void addDolphin(Object owner, Transformation parent, 
+			Transformation transformation, int spriteIndex, boolean inAir)
+	{
+		if (this.dolphinAmount == this.dolphinSprites.length)
+		{
+			int capacity = this.dolphinAmount * 2;
+			this.dolphinMatrices = Arrays.copyOf(this.dolphinMatrices, capacity * MATRIX_SIZE);
+			this.dolphinSprites = Arrays.copyOf(this.dolphinSprites, capacity);
+			this.dolphinsInAir = Arrays.copyOf(this.dolphinsInAir, capacity);
+			this.dolphinOwners = Arrays.copyOf(this.dolphinOwners, capacity);
+		}
+		
+		int i = this.dolphinAmount;
+		writeMatrix(this.dolphinMatrices, i, transformation, parent);
+		this.dolphinSprites[i] = spriteIndex;
+		this.dolphinsInAir[i] = inAir;
+		this.dolphinOwners[i] = owner;
+		this.dolphinAmount ++;
+		
+		// The table is kept at most half full
+		if (this.dolphinAmount * 2 > this.ownerTable.length)
+		{
+			this.ownerTable = new Object[this.ownerTable.length * 2];
+			this.ownerIndices = new int[this.ownerTable.length];
+			for (int k = 0; k < this.dolphinAmount; k++)
+			{
+				putOwner(k);
+			}
+		}
+		else
+			putOwner(i);
+	}
+	
+	/**
+	 * Draws the recorded tick. The glasses are drawn first, then the dolphins in the
+	 * glasses and on the table and finally the dolphins in the air.
+	 * @param g2d The graphics object that does the drawing
+	 */
+	public void draw(Graphics2D g2d)
+	{
+		draw(g2d, null, 1);
+	}
+	
+	/**
+	 * Draws the dolphins between the previous tick and the recorded tick. The glasses 
+	 * don't move, so they are always drawn as they were recorded.
+	 * @param g2d The graphics object that does the drawing
+	 * @param previous The snapshot of the previous tick. Null if no interpolation should 
+	 * be done.
+	 * @param alpha How far between the previous and the recorded tick the dolphins are 
+	 * drawn [0, 1]. 1 draws the recorded tick.
+	 */
+	public void draw(Graphics2D g2d, RenderSnapshot previous, double alpha)
+	{
+		draw(g2d, previous, alpha, null);
+	}
+	
+	/**
+	 * Draws the dolphins between the previous tick and the recorded tick. The glasses 
+	 * are drawn from a cached table layer.
+	 * @param g2d The graphics object that does the drawing
+	 * @param previous The snapshot of the previous tick. Null if no interpolation should 
+	 * be done.
+	 * @param alpha How far between the previous and the recorded tick the dolphins are 
+	 * drawn [0, 1]. 1 draws the recorded tick.
+	 * @param table The layer that caches the glasses. Null if the glasses should be drawn 
+	 * separately.
+	 */
+	public void draw(Graphics2D g2d, RenderSnapshot previous, double alpha, TableLayer table)
+	{
+		AffineTransform lastTransform = g2d.getTransform();
+		
+		if (table != null)
+			table.draw(g2d, this);
+		
+		for (int i = 0; i < this.glassAmount; i++)
+		{
+			if (table != null && this.crowdSizes[i] == 0)
+				continue;
+			
+			applyMatrix(g2d, lastTransform, this.glassMatrices, i, this.glassMatrices, i, 1);
+			if (table == null)
+				drawGlass(g2d, this.glassRadii[i], this.contentRadii[i], 
+						this.glassBeverages[i]);
+			if (this.crowdSizes[i] > 0)
+				drawCrowd(g2d, i);
+		}
+		
+		drawDolphins(g2d, lastTransform, false, previous, alpha);
+		drawDolphins(g2d, lastTransform, true, previous, alpha);
+		
+		g2d.setTransform(lastTransform);
+	}
+	
+	private void drawDolphins(Graphics2D g2d, AffineTransform base, boolean inAir, 
+			RenderSnapshot previous, double alpha)
+	{
+		int lastSpriteIndex = -1;
+		BufferedImage sprite = null;
+		
+		for (int i = 0; i < this.dolphinAmount; i++)
+		{
+			if (this.dolphinsInAir[i] != inAir)
+				continue;
+			
+			if (this.dolphinSprites[i] != lastSpriteIndex)
+			{
+				lastSpriteIndex = this.dolphinSprites[i];
+				sprite = DolphinSprites.getSprite(lastSpriteIndex);
+			}
+			
+			int previousIndex = previous == null ? -1 : 
+					previous.findDolphin(this.dolphinOwners[i]);
+			if (previousIndex >= 0)
+				applyMatrix(g2d, base, previous.dolphinMatrices, previousIndex, 
+						this.dolphinMatrices, i, alpha);
+			else
+				applyMatrix(g2d, base, this.dolphinMatrices, i, this.dolphinMatrices, i, 1);
+			g2d.drawImage(sprite, DolphinSprites.ORIGIN_X, DolphinSprites.ORIGIN_Y, null);
+		}
+	}
+	
+	/**
+	 * Draws a glass and its content. The graphics object should already be transformed to 
+	 * the glass' coordinate system.
+	 * @param g2d The graphics object that does the drawing
+	 * @param radius The radius of the glass
+	 * @param contentRadius The radius of the glass' content
+	 * @param beverage The ordinal of the glass' beverage. -1 if the glass is empty.
+	 */
+	static void drawGlass(Graphics2D g2d, int radius, int contentRadius, byte beverage)
+	{
+		g2d.setColor(Color.CYAN);
+		g2d.drawOval(-radius, -radius, radius * 2, radius * 2);
+		
+		if (beverage >= 0)
+		{
+			g2d.setColor(BEVERAGES[beverage].getColor());
+			g2d.fillOval(-contentRadius, -contentRadius, contentRadius * 2, 
+					contentRadius * 2);
+		}
+	}
+	
+	private void drawCrowd(Graphics2D g2d, int glassIndex)
+	{
+		// The crowd is drawn as sectors, one for each beverage the dolphins drink
+		int radius = Math.max(this.contentRadii[glassIndex], this.glassRadii[glassIndex] / 2);
+		int total = this.crowdSizes[glassIndex];
+		int start = glassIndex * BEVERAGES.length;
+		int counted = 0;
+		for (int beverage = 0; beverage < BEVERAGES.length; beverage++)
+		{
+			int amount = this.crowdShares[start + beverage];
+			if (amount == 0)
+				continue;
+			
+			int startAngle = (int) (360L * counted / total);
+			counted += amount;
+			int endAngle = (int) (360L * counted / total);
+			
+			g2d.setColor(CROWD_COLORS[beverage]);
+			g2d.fillArc(-radius, -radius, radius * 2, radius * 2, startAngle, 
+					endAngle - startAngle);
+		}
+	}
+	
+	private static Color[] createCrowdColors()
+	{
+		Color[] colors = new Color[BEVERAGES.length];
+		for (int i = 0; i < colors.length; i++)
+		{
+			Color color = BEVERAGES[i].getColor().darker();
+			colors[i] = new Color(color.getRed(), color.getGreen(), color.getBlue(), 160);
+		}
+		return colors;
+	}
+	
+	private void putOwner(int index)
+	{
+		Object owner = this.dolphinOwners[index];
+		if (owner == null)
+			return;
+		
+		int mask = this.ownerTable.length - 1;
+		int slot = getOwnerHash(owner) & mask;
+		while (this.ownerTable[slot] != null)
+		{
+			// Only the first dolphin of each owner is found
+			if (this.ownerTable[slot] == owner)
+				return;
+			slot = (slot + 1) & mask;
+		}
+		
+		this.ownerTable[slot] = owner;
+		this.ownerIndices[slot] = index;
+	}
+	
+	private int findDolphin(Object owner)
+	{
+		if (owner == null)
+			return -1;
+		
+		int mask = this.ownerTable.length - 1;
+		int slot = getOwnerHash(owner) & mask;
+		while (this.ownerTable[slot] != null)
+		{
+			if (this.ownerTable[slot] == owner)
+				return this.ownerIndices[slot];
+			slot = (slot + 1) & mask;
+		}
+		
+		return -1;
+	}
+	
+	private static int getOwnerHash(Object owner)
+	{
+		// The identity hashes are spread so that the low bits differ as well
+		int hash = System.identityHashCode(owner) * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+	
+	private void applyMatrix(Graphics2D g2d, AffineTransform base, double[] from, 
+			int fromIndex, double[] to, int toIndex, double alpha)
+	{
+		// The matrices are interpolated component-wise, which is accurate enough for the 
+		// small changes between two ticks
+		int fromStart = fromIndex * MATRIX_SIZE;
+		int toStart = toIndex * MATRIX_SIZE;
+		for (int i = 0; i < MATRIX_SIZE; i++)
+		{
+			double a = from[fromStart + i];
+			this.blendedMatrix[i] = a + (to[toStart + i] - a) * alpha;
+		}
+		this.entryTransform.setTransform(this.blendedMatrix[0], this.blendedMatrix[1], 
+				this.blendedMatrix[2], this.blendedMatrix[3], this.blendedMatrix[4], 
+				this.blendedMatrix[5]);
+		this.drawTransform.setTransform(base);
+		this.drawTransform.concatenate(this.entryTransform);
+		g2d.setTransform(this.drawTransform);
+	}
+	
+	private void writeMatrix(double[] matrices, int index, Transformation transformation, 
+			Transformation parent)
+	{
+		int start = index * MATRIX_SIZE;
+		if (parent == null)
+		{
+			toMatrix(transformation, matrices, start);
+			return;
+		}
+		
+		// The dolphins of a glass share the parent, so its matrix is only calculated once
+		double[] p = this.parentMatrix;
+		if (parent != this.matrixParent)
+		{
+			toMatrix(parent, p, 0);
+			this.matrixParent = parent;
+		}
+		
+		// The parent's matrix is multiplied by the dolphin's own matrix
+		double[] c = this.matrix;
+		toMatrix(transformation, c, 0);
+		matrices[start] = p[0] * c[0] + p[2] * c[1];
+		matrices[start + 1] = p[1] * c[0] + p[3] * c[1];
+		matrices[start + 2] = p[0] * c[2] + p[2] * c[3];
+		matrices[start + 3] = p[1] * c[2] + p[3] * c[3];
+		matrices[start + 4] = p[0] * c[4] + p[2] * c[5] + p[4];
+		matrices[start + 5] = p[1] * c[4] + p[3] * c[5] + p[5];
+	}
+	
+	private static void toMatrix(Transformation transformation, double[] result, int start)
+	{
+		// Translates, rotates against the angle and scales, like 
+		// Transformation.transform(Graphics2D) does. The game doesn't shear its objects. 
+		// The values are in the order of AffineTransform.getMatrix(double[]).
+		double angle = Math.toRadians(transformation.getAngle());
+		double cos = Math.cos(angle);
+		double sin = -Math.sin(angle);
+		Vector3D scaling = transformation.getScaling();
+		Vector3D position = transformation.getPosition();
+		
+		result[start] = cos * scaling.getFirst();
+		result[start + 1] = sin * scaling.getFirst();
+		result[start + 2] = -sin * scaling.getSecond();
+		result[start + 3] = cos * scaling.getSecond();
+		result[start + 4] = position.getFirst();
+		result[start + 5] = position.getSecond();
+	}
+}
@@ -0,0 +1,124 @@
+package dd_gameplay;
+
+import java.awt.Graphics2D;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * RenderSnapshotBuffer passes render snapshots from the simulation to the renderer using
+ * three buffers. The renderer draws between the two latest published snapshots while the
+ * simulation writes into the third one, and the buffers are rotated at the end of each
+ * published tick. The simulation never waits for the renderer: if the renderer is still
+ * drawing the buffer the simulation would write into, the tick is simply not published. 
+ * The glasses are drawn from a cached table layer.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class RenderSnapshotBuffer
+{
+	// ATTRIBUTES	--------------------
+	
+	private RenderSnapshot[] snapshots;
+	private ReentrantLock[] locks;
+	// The index of the latest snapshot in the lowest two bits, the previous above them
+	private volatile int published;
+	private int back;
+	private TableLayer table;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new buffer with three empty snapshots
+	 */
+	public RenderSnapshotBuffer()
+	{
+		this.snapshots = new RenderSnapshot[] {new RenderSnapshot(), new RenderSnapshot(), 
+				new RenderSnapshot()};
+		this.locks = new ReentrantLock[] {new ReentrantLock(), new ReentrantLock(), 
+				new ReentrantLock()};
+		this.published = 0 | 1 << 2;
+		this.back = -1;
+		this.table = new TableLayer();
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Starts writing a new snapshot. This should only be called by the simulation.
+	 * {@link #endWrite()} must be called once the snapshot has been written.
+	 * @return An empty snapshot that can be written. Null if the renderer is still using
+	 * the back buffer, in which case this tick shouldn't be published.
+	 */
+	public RenderSnapshot beginWrite()
+	{
+		int published = this.published;
+		int back = 3 - (published & 3) - (published >> 2);
+		if (!this.locks[back].tryLock())
+			return null;
+		
+		this.back = back;
+		RenderSnapshot snapshot = this.snapshots[back];
+		snapshot.clear();
+		return snapshot;
+	}
+	
+	/**
+	 * Publishes the snapshot that was written, making it the latest snapshot. The
+	 * previously latest snapshot becomes the one the renderer interpolates from.
+	 */
+	public void endWrite()
+	{
+		if (this.back < 0)
+			return;
+		
+		this.locks[this.back].unlock();
+		this.published = this.back | (this.published & 3) << 2;
+		this.back = -1;
+	}
+	
+	/**
+	 * Draws the latest published snapshot. This should only be called by the renderer.
+	 * @param g2d The graphics object that does the drawing
+	 */
+	public void draw(Graphics2D g2d)
+	{
+		draw(g2d, 1);
+	}
+	
+	/**
+	 * Draws the game between the two latest published snapshots. This should only be
+	 * called by the renderer.
+	 * @param g2d The graphics object that does the drawing
+	 * @param alpha How far between the previous and the latest snapshot the game is drawn
+	 * [0, 1]
+	 */
+	public void draw(Graphics2D g2d, double alpha)
+	{
+		while (true)
+		{
+			int published = this.published;
+			int latest = published & 3;
+			int previous = published >> 2;
+			
+			this.locks[latest].lock();
+			this.locks[previous].lock();
+			try
+			{
+				// If a new snapshot was published in between, the previous buffer may
+				// have been overwritten already, so the buffers are read again
+				if (published == this.published)
+				{
+					this.snapshots[latest].draw(g2d, this.snapshots[previous], alpha, 
+							this.table);
+					return;
+				}
+			}
+			finally
+			{
+				this.locks[previous].unlock();
+				this.locks[latest].unlock();
+			}
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package dd_gameplay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SpatialGrid is a uniform grid that sorts objects into square cells based on their
+ * (2D) position. The grid can be used for narrowing down spatial queries so that only the
+ * objects near the queried point need to be checked.
+ * @author agent
+ * @since 18.10.2026
+ * @param <T> The type of object stored in the grid
+ */
+public class SpatialGrid<T>
+{
+	// ATTRIBUTES	-------------------
+	
+	private double cellSize;
+	private Map<Long, List<T>> cells;
+	private Map<T, Long> itemCells;
+	private int minCellX, minCellY, maxCellX, maxCellY;
+	
+	
+	// CONSTRUCTOR	-------------------
+	
+	/**
+	 * Creates a new empty grid
+	 * @param cellSize The width and height of a single cell (in pixels)
+	 */
+	public SpatialGrid(double cellSize)
+	{
+		this.cellSize = cellSize;
+		this.cells = new HashMap<>();
+		this.itemCells = new HashMap<>();
+		
+		clear();
+	}
+	
+	
+	// ACCESSORS	-------------------
+	
+	/**
+	 * @return The width and height of a single cell
+	 */
+	public double getCellSize()
+	{
+		return this.cellSize;
+	}
+	
+	/**
+	 * @return The smallest x-index of a cell that has been used in this grid
+	 */
+	public int getMinCellX()
+	{
+		return this.minCellX;
+	}
+	
+	/**
+	 * @return The smallest y-index of a cell that has been used in this grid
+	 */
+	public int getMinCellY()
+	{
+		return this.minCellY;
+	}
+	
+	/**
+	 * @return The largest x-index of a cell that has been used in this grid
+	 */
+	public int getMaxCellX()
+	{
+		return this.maxCellX;
+	}
+	
+	/**
+	 * @return The largest y-index of a cell that has been used in this grid
+	 */
+	public int getMaxCellY()
+	{
+		return this.maxCellY;
+	}
+	
+	
+	// OTHER METHODS	---------------
+	
+	/**
+	 * @return Does the grid contain any objects
+	 */
+	public boolean isEmpty()
+	{
+		return this.itemCells.isEmpty();
+	}
+	
+	/**
+	 * Finds the index of the cell that contains the given coordinate
+	 * @param coordinate An x- or y-coordinate
+	 * @return The index of the cell column / row that contains the coordinate
+	 */
+	public int toCellIndex(double coordinate)
+	{
+		return (int) Math.floor(coordinate / this.cellSize);
+	}
+	
+	/**
+	 * Places an object to the grid. If the object was already in the grid, it is moved.
+	 * @param item The object that is placed
+	 * @param x The x-coordinate of the object
+	 * @param y The y-coordinate of the object
+	 */
+	public void put(T item, double x, double y)
+	{
+		int cellX = toCellIndex(x);
+		int cellY = toCellIndex(y);
+		long key = toKey(cellX, cellY);
+		
+		Long previousKey = this.itemCells.put(item, key);
+		if (previousKey != null)
+		{
+			// No need to do anything if the object stays in the same cell
+			if (previousKey.longValue() == key)
+				return;
+			removeFromCell(item, previousKey);
+		}
+		
+		List<T> cell = this.cells.get(key);
+		if (cell == null)
+		{
+			cell = new ArrayList<>(2);
+			this.cells.put(key, cell);
+		}
+		cell.add(item);
+		
+		// Updates the grid bounds
+		if (this.maxCellX < this.minCellX)
+		{
+			this.minCellX = cellX;
+			this.maxCellX = cellX;
+			this.minCellY = cellY;
+			this.maxCellY = cellY;
+		}
+		else
+		{
+			this.minCellX = Math.min(this.minCellX, cellX);
+			this.maxCellX = Math.max(this.maxCellX, cellX);
+			this.minCellY = Math.min(this.minCellY, cellY);
+			this.maxCellY = Math.max(this.maxCellY, cellY);
+		}
+	}
+	
+	/**
+	 * Removes an object from the grid
+	 * @param item The object that is removed
+	 */
+	public void remove(T item)
+	{
+		Long key = this.itemCells.remove(item);
+		if (key != null)
+			removeFromCell(item, key);
+	}
+	
+	/**
+	 * Removes all objects from the grid
+	 */
+	public void clear()
+	{
+		this.cells.clear();
+		this.itemCells.clear();
+		this.minCellX = 0;
+		this.minCellY = 0;
+		this.maxCellX = -1;
+		this.maxCellY = -1;
+	}
+	
+	/**
+	 * Finds the objects in a single cell
+	 * @param cellX The x-index of the cell
+	 * @param cellY The y-index of the cell
+	 * @return The objects in the cell. The list shouldn't be modified.
+	 */
+	public List<T> getCell(int cellX, int cellY)
+	{
+		List<T> cell = this.cells.get(toKey(cellX, cellY));
+		if (cell == null)
+			return Collections.emptyList();
+		return cell;
+	}
+	
+	private void removeFromCell(T item, long key)
+	{
+		List<T> cell = this.cells.get(key);
+		if (cell != null)
+		{
+			cell.remove(item);
+			if (cell.isEmpty())
+				this.cells.remove(key);
+		}
+	}
+	
+	private static long toKey(int cellX, int cellY)
+	{
+		return (((long) cellX) << 32) | (cellY & 0xffffffffL);
+	}
+}
@@ -1,22 +1,10 @@
 package dd_gameplay;
 
-import java.awt.Graphics2D;
-import java.awt.geom.AffineTransform;
+import java.nio.ByteBuffer;
 
 import dd_main.DDHandlerType;
-import genesis_event.Actor;
-import genesis_event.Drawable;
-import genesis_event.EventSelector;
-import genesis_event.HandlerRelay;
 import genesis_event.MouseEvent;
-import genesis_event.MouseListener;
-import genesis_event.MultiEventSelector;
-import genesis_event.StrictEventSelector;
-import genesis_event.MouseEvent.MouseButtonEventScale;
 import genesis_event.MouseEvent.MouseButtonEventType;
-import genesis_util.DepthConstants;
-import genesis_util.SimpleHandled;
-import genesis_util.Transformable;
 import genesis_util.Transformation;
 import genesis_util.Vector3D;
 
@@ -26,49 +14,52 @@ import genesis_util.Vector3D;
  * @author Mikko Hilpinen
  * @since 6.8.2015
  */
-public class StrandedDolphin extends SimpleHandled implements Transformable,
-		Drawable, MouseListener, Actor
+public class StrandedDolphin implements DolphinState
 {
 	// ATTRIBUTES	--------------------
 	
+	/**
+	 * How close to a stranded dolphin the mouse must be in order to save it
+	 */
+	public static final int HIT_RADIUS = 32;
+	
 	private double saveLeft, anglePhase, originalAngle;
-	private DolphinData data;
+	private Dolphin dolphin;
 	private Transformation transformation;
-	private EventSelector<MouseEvent> mouseSelector;
-	private HandlerRelay handlers;
 	
 	
 	// CONSTRUCTOR	--------------------
 	
 	/**
-	 * Creates a new stranded dolphin to the specified location
-	 * @param handlers The handlers that will handle the dolphin
-	 * @param data The dolphin's data
+	 * Creates a new state for a dolphin stranded to the specified location
+	 * @param dolphin The dolphin that is stranded
 	 * @param position The dolphin's position
 	 * @param direction The dolphin's direction
 	 */
-	public StrandedDolphin(HandlerRelay handlers, DolphinData data, Vector3D position, 
-			double direction)
+	StrandedDolphin(Dolphin dolphin, Vector3D position, double direction)
 	{
-		super(handlers);
-		
 		this.saveLeft = 50;
 		this.anglePhase = 0;
-		this.data = data;
+		this.dolphin = dolphin;
 		this.originalAngle = direction;
 		this.transformation = new Transformation(position, Vector3D.identityVector(), 
 				Vector3D.zeroVector(), direction);
-		this.handlers = handlers;
-		
-		MultiEventSelector<MouseEvent> downAndReleased = new MultiEventSelector<>();
-		StrictEventSelector<MouseEvent, MouseEvent.Feature> localMouseDown = 
-				MouseEvent.createButtonEventTypeSelector(MouseButtonEventType.DOWN);
-		localMouseDown.addRequiredFeature(MouseButtonEventScale.LOCAL);
-		downAndReleased.addOption(localMouseDown);
-		downAndReleased.addOption(MouseEvent.createButtonEventTypeSelector(
-				MouseButtonEventType.RELEASED));
-		
-		this.mouseSelector = downAndReleased;
+	}
+	
+	
+	/**
+	 * Restores a stranded state written in the world snapshot format
+	 * @param dolphin The dolphin that is stranded
+	 * @param buffer The buffer the state is read from
+	 * @see WorldSnapshot
+	 */
+	StrandedDolphin(Dolphin dolphin, ByteBuffer buffer)
+	{
+		this(dolphin, new Vector3D(buffer.getDouble(), buffer.getDouble()), 
+				buffer.getDouble());
+		setTrasformation(getTransformation().withAngle(buffer.getDouble()));
+		this.saveLeft = buffer.getDouble();
+		this.anglePhase = buffer.getDouble();
 	}
 	
 	
@@ -77,25 +68,17 @@ public class StrandedDolphin extends SimpleHandled implements Transformable,
 	@Override
 	public void act(double duration)
 	{
-		getData().decreaseHealth(duration * 0.3);
-		this.anglePhase += getData().getHealth() * 0.005 * duration;
-		setTrasformation(getTransformation().withAngle(this.originalAngle + 
-				Math.sin(this.anglePhase) * 70));
+		suffer(duration);
 		
-		if (getData().getHealth() < 0)
-			getIsDeadStateOperator().setState(true);
-	}
-
-	@Override
-	public EventSelector<MouseEvent> getMouseEventSelector()
-	{
-		return this.mouseSelector;
+		// The dolphin dies once its health runs out
+		if (hasDied())
+			die();
 	}
 
 	@Override
 	public boolean isInAreaOfInterest(Vector3D position)
 	{
-		return getTransformation().inverseTransform(position).getLength() < 32;
+		return getTransformation().inverseTransform(position).getLength() < HIT_RADIUS;
 	}
 
 	@Override
@@ -112,36 +95,17 @@ public class StrandedDolphin extends SimpleHandled implements Transformable,
 			// If the dolphin is saved, it tries to jump to the nearest glass
 			if (this.saveLeft < 0)
 			{
-				Glass nearest = ((GlassRelay) this.handlers.getHandler(
+				Glass nearest = ((GlassRelay) this.dolphin.getHandlers().getHandler(
 						DDHandlerType.GLASSRELAY)).getClosestGlass(
 						getTransformation().getPosition(), false);
 				if (nearest == null)
 					this.saveLeft += 20;
 				else
-				{
-					new JumpingDolphin(this.handlers, getData(), 
-							getTransformation().getPosition(), 
-							nearest.getRandomPositionInside());
-					getIsDeadStateOperator().setState(true);
-				}
+					this.dolphin.jumpTo(nearest);
 			}
 		}
 	}
 
-	@Override
-	public void drawSelf(Graphics2D g2d)
-	{
-		AffineTransform lastTransform = getTransformation().transform(g2d);
-		getData().draw(g2d);
-		g2d.setTransform(lastTransform);
-	}
-
-	@Override
-	public int getDepth()
-	{
-		return DepthConstants.NORMAL;
-	}
-
 	@Override
 	public Transformation getTransformation()
 	{
@@ -153,15 +117,70 @@ public class StrandedDolphin extends SimpleHandled implements Transformable,
 	{
 		this.transformation = t;
 	}
+	
+	@Override
+	public void leave()
+	{
+		// The stranded state doesn't need to be cleaned up
+	}
 
 	
 	// ACCESSORS	--------------
 	
+	/**
+	 * Writes the state in the world snapshot format
+	 * @param buffer The buffer the state is written to
+	 * @see WorldSnapshot
+	 */
+	void writeTo(ByteBuffer buffer)
+	{
+		Vector3D position = getTransformation().getPosition();
+		buffer.putDouble(position.getFirst());
+		buffer.putDouble(position.getSecond());
+		buffer.putDouble(this.originalAngle);
+		buffer.putDouble(getTransformation().getAngle());
+		buffer.putDouble(this.saveLeft);
+		buffer.putDouble(this.anglePhase);
+	}
+	
 	/**
 	 * @return The dolphin's basic statistics
 	 */
 	public DolphinData getData()
 	{
-		return this.data;
+		return this.dolphin.getData();
+	}
+	
+	/**
+	 * @return Has the dolphin's health run out
+	 */
+	boolean hasDied()
+	{
+		return getData().getHealth() < 0;
+	}
+	
+	
+	// OTHER METHODS	--------------
+	
+	/**
+	 * Decreases the dolphin's health and makes it wriggle. This only affects the dolphin 
+	 * itself, so it can be done concurrently for different dolphins.
+	 * @param duration How long the dolphin suffers (in steps)
+	 */
+	void suffer(double duration)
+	{
+		getData().decreaseHealth(duration * 0.3);
+		this.anglePhase += getData().getHealth() * 0.005 * duration;
+		setTrasformation(getTransformation().withAngle(this.originalAngle + 
+				Math.sin(this.anglePhase) * 70));
+	}
+	
+	/**
+	 * Removes the dead dolphin from the game
+	 */
+	void die()
+	{
+		GameMetrics.record(GameMetrics.Event.DEATH);
+		this.dolphin.removeFromGame();
 	}
 }
@@ -1,71 +1,79 @@
 package dd_gameplay;
 
-import java.awt.Graphics2D;
-import java.awt.geom.AffineTransform;
-import java.util.Random;
+import java.nio.ByteBuffer;
 
-import genesis_event.Actor;
-import genesis_event.Drawable;
-import genesis_event.HandlerRelay;
-import genesis_util.DepthConstants;
+import genesis_event.MouseEvent;
 import genesis_util.HelpMath;
-import genesis_util.SimpleHandled;
-import genesis_util.Transformable;
 import genesis_util.Transformation;
 import genesis_util.Vector3D;
 
 /**
- * This dolphin swims in a glass
+ * This is the state of a dolphin that swims in a glass. The glass' handler keeps track of 
+ * the state until the dolphin leaves the glass. If the glass stores its dolphins in a 
+ * compact form, the dolphin's movement is kept in the store instead of the state.
  * @author Mikko Hilpinen
  * @since 5.8.2015
  */
-public class SwimmingDolphin extends SimpleHandled implements Drawable,
-		Transformable, Actor
+public class SwimmingDolphin implements DolphinState
 {
 	// ATTRIBUTES	--------------------
 	
-	private DolphinData data;
+	private Dolphin dolphin;
 	private Transformation ownTransformation;
-	private double speed;
+	// The radius is relative to the glass' fill, see Glass.getSwimmingScale()
+	private double angle, radius, speed, transformationScale;
+	private boolean reversed;
 	private Glass glass;
-	private HandlerRelay handlers;
-	
-	private static Random random = new Random();
+	// The store that holds the dolphin's movement. Null if the state moves the dolphin.
+	private DolphinStore store;
+	private int handlerIndex;
 	
 	
 	// CONSTRUCTOR	--------------------
 	
 	/**
-	 * Creates a new dolphin that swimms in a glass
-	 * @param handlers The handlers that will handle the dolphin
-	 * @param data The dolphin's data
+	 * Creates a new dolphin state for swimming in a glass
+	 * @param dolphin The dolphin that swims
 	 * @param relativePosition The position of the dolphin in relation to the glass
 	 * @param speed The speed with which the dolphin circles the glass (in pixels)
 	 * @param glass The glass in which the dolphin swims
 	 */
-	public SwimmingDolphin(HandlerRelay handlers, DolphinData data, Vector3D relativePosition, 
-			double speed, Glass glass)
+	SwimmingDolphin(Dolphin dolphin, Vector3D relativePosition, double speed, Glass glass)
 	{
-		super(handlers);
-		
-		this.data = data;
-		this.ownTransformation = new Transformation(relativePosition);
+		// Calculates the dolphin's travelling speed in degrees. The rotation is set against 
+		// the travel direction
+		this(dolphin, relativePosition.getZDirection(), relativePosition.getLength(), 
+				speed * 360 / ( 2 * Math.PI * relativePosition.getLength()), speed < 0, glass);
+	}
+	
+	/**
+	 * Creates a new dolphin state for swimming in a glass
+	 * @param dolphin The dolphin that swims
+	 * @param angle The direction of the dolphin from the center of the glass (degrees)
+	 * @param radius The distance of the dolphin from the center of the glass
+	 * @param angularSpeed The speed with which the dolphin circles the glass (in degrees)
+	 * @param reversed Does the dolphin face against the positive rotation direction
+	 * @param glass The glass in which the dolphin swims
+	 */
+	SwimmingDolphin(Dolphin dolphin, double angle, double radius, double angularSpeed, 
+			boolean reversed, Glass glass)
+	{
+		this.dolphin = dolphin;
+		this.angle = angle;
+		this.radius = glass.toSwimmingRadius(radius);
+		this.speed = angularSpeed;
+		this.reversed = reversed;
+		this.ownTransformation = null;
+		this.transformationScale = 0;
 		this.glass = glass;
-		this.handlers = handlers;
+		this.handlerIndex = -1;
+		this.store = glass.getHandler().getStore();
 		
-		// Calculates the dolphin's travelling speed in degrees
-		double r = relativePosition.getLength();
-		this.speed = speed * 360 / ( 2 * Math.PI * r);
-		
-		// Sets the rotation right as well
-		double direction = relativePosition.getZDirection() + 90;
-		if (speed < 0)
-			direction -= 180;
-		
-		this.ownTransformation = this.ownTransformation.withAngle(direction);
-		
-		// Adds the dolphin to the handler
-		glass.getHandler().add(this);
+		// Adds the dolphin to the handler or the store
+		if (this.store != null)
+			this.store.add(this, angle, radius, angularSpeed, reversed);
+		else
+			glass.getHandler().addDolphin(this);
 	}
 	
 	
@@ -74,39 +82,70 @@ public class SwimmingDolphin extends SimpleHandled implements Drawable,
 	@Override
 	public Transformation getTransformation()
 	{
-		return this.glass.getTransformation().transform(this.ownTransformation);
+		return this.glass.getTransformation().transform(getOwnTransformation());
 	}
 
 	@Override
 	public void setTrasformation(Transformation t)
 	{
-		this.ownTransformation = t;
+		// The dolphin keeps swimming around the glass from the new position
+		Vector3D position = this.glass.getTransformation().inverseTransform(t.getPosition());
+		if (this.store != null)
+		{
+			this.store.setPosition(this.handlerIndex, position.getZDirection(), 
+					position.getLength());
+			return;
+		}
+		
+		this.angle = position.getZDirection();
+		this.radius = this.glass.toSwimmingRadius(position.getLength());
+		this.ownTransformation = null;
 	}
 
 	@Override
-	public void drawSelf(Graphics2D g2d)
+	public void act(double duration)
+	{
+		// The stored dolphins are moved by the glass
+		if (this.store != null)
+			return;
+		
+		// Circles the glass. The transformation is updated only when it's needed.
+		this.angle += this.speed * duration;
+		if (this.angle >= 360)
+			this.angle -= 360;
+		else if (this.angle < 0)
+			this.angle += 360;
+		this.ownTransformation = null;
+		
+		if (this.speed > 8)
+			this.speed -= 0.3 * duration;
+		else if (this.speed < 2)
+			this.speed += 0.3 * duration;
+	}
+	
+	@Override
+	public boolean isInAreaOfInterest(Vector3D position)
 	{
-		AffineTransform lastTransform = getTransformation().transform(g2d);
-		getData().draw(g2d);
-		g2d.setTransform(lastTransform);
+		return false;
 	}
 
 	@Override
-	public int getDepth()
+	public void onMouseEvent(MouseEvent event)
 	{
-		return DepthConstants.NORMAL;
+		// Swimming dolphins don't react to the mouse
 	}
 
 	@Override
-	public void act(double duration)
+	public void leave()
 	{
-		setTrasformation(this.ownTransformation.rotatedAroundAbsolutePoint(
-				this.speed * duration, Vector3D.zeroVector()));
-		
-		if (this.speed > 8)
-			this.speed -= 0.3 * duration;
-		else if (this.speed < 2)
-			this.speed += 0.3 * duration;
+		// Removes the dolphin from the glass
+		if (this.store != null)
+		{
+			if (this.handlerIndex >= 0)
+				this.store.remove(this.handlerIndex);
+		}
+		else
+			this.glass.getHandler().removeDolphin(this);
 	}
 	
 	
@@ -117,7 +156,34 @@ public class SwimmingDolphin extends SimpleHandled implements Drawable,
 	 */
 	public DolphinData getData()
 	{
-		return this.data;
+		return this.dolphin.getData();
+	}
+	
+	/**
+	 * @return The dolphin that swims
+	 */
+	public Dolphin getDolphin()
+	{
+		return this.dolphin;
+	}
+	
+	/**
+	 * @return The dolphin's index among the dolphins in the glass that drink the same 
+	 * beverage, or its index in the glass' store. -1 if the dolphin is no longer in the 
+	 * glass.
+	 */
+	int getHandlerIndex()
+	{
+		return this.handlerIndex;
+	}
+	
+	/**
+	 * Changes the dolphin's index in the glass' handler
+	 * @param index The dolphin's new index
+	 */
+	void setHandlerIndex(int index)
+	{
+		this.handlerIndex = index;
 	}
 	
 	/**
@@ -125,6 +191,18 @@ public class SwimmingDolphin extends SimpleHandled implements Drawable,
 	 */
 	public Transformation getOwnTransformation()
 	{
+		if (this.store != null)
+			return this.store.getRelativeTransformation(this.handlerIndex);
+		
+		// The transformation is also updated when the glass' fill has changed
+		double scale = this.glass.getSwimmingScale();
+		if (this.ownTransformation == null || scale != this.transformationScale)
+		{
+			this.ownTransformation = new Transformation(HelpMath.lenDir(this.radius * scale, 
+					this.angle)).withAngle(this.angle + (this.reversed ? -90 : 90));
+			this.transformationScale = scale;
+		}
+		
 		return this.ownTransformation;
 	}
 	
@@ -132,29 +210,31 @@ public class SwimmingDolphin extends SimpleHandled implements Drawable,
 	// OTHER METHODS	----------------
 	
 	/**
-	 * The dolphin tries to drink from the glass
+	 * Writes the dolphin's position and movement in the world snapshot format
+	 * @param buffer The buffer the values are written to
+	 * @see WorldSnapshot
 	 */
-	public void drink()
+	void writeTo(ByteBuffer buffer)
 	{
-		// Dolphins only drink beverage they like
-		if (this.glass.getBeverage().equals(getData().getDrinkType()) && !this.glass.isEmpty())
+		if (this.store != null)
 		{
-			this.glass.drink(1);
-			getData().increaseDrunkness(1);
+			this.store.writeTo(this.handlerIndex, buffer);
+			return;
 		}
+		
+		buffer.putDouble(this.angle);
+		buffer.putDouble(this.radius * this.glass.getSwimmingScale());
+		buffer.putDouble(this.speed);
+		buffer.put((byte) (this.reversed ? 1 : 0));
 	}
 	
 	/**
-	 * Makes the dolphin leave the glass and jump to another position (this swimmingDolphin is 
-	 * killed in the process)
+	 * Makes the dolphin leave the glass and jump to another position
 	 * @param position The position the dolphin jumps to
 	 */
 	public void jumpTo(Vector3D position)
 	{
-		// Transforms into a jumping dolphin
-		new JumpingDolphin(this.handlers, getData(), getTransformation().getPosition(), 
-				position);
-		getIsDeadStateOperator().setState(true);
+		this.dolphin.jump(getTransformation().getPosition(), position);
 	}
 	
 	/**
@@ -165,20 +245,4 @@ public class SwimmingDolphin extends SimpleHandled implements Drawable,
 	{
 		jumpTo(glass.getRandomPositionInside());
 	}
-	
-	/**
-	 * This method creates a random dolphin inside the given glass
-	 * @param handlers The handlers that will handle the dolphin
-	 * @param glass The glass the dolphin will be put into
-	 * @return The dolphin that was created
-	 */
-	public static SwimmingDolphin createDolphin(HandlerRelay handlers, Glass glass)
-	{
-		DolphinData data = new DolphinData(Beverage.getRandomBeverage());
-		Vector3D relativePos = HelpMath.lenDir(10 + random.nextInt(glass.getContentRadius() - 
-				10), random.nextInt(360));
-		
-		return new SwimmingDolphin(handlers, data, relativePos, 2 + random.nextDouble() * 4, 
-				glass);
-	}
 }
@@ -0,0 +1,226 @@
+package dd_gameplay;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * TableLayer caches the static part of the table (the glass outlines and contents) in an
+ * offscreen image, so that it can be drawn with a single image draw. A glass is only
+ * redrawn into the image when its looks change, which mostly happens when it is drunk
+ * from. The layer is only used by the renderer.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class TableLayer
+{
+	// ATTRIBUTES	--------------------
+	
+	private static final int MATRIX_SIZE = 6;
+	private static final int MARGIN = 2;
+	
+	private BufferedImage image;
+	private Rectangle bounds;
+	private int glassAmount;
+	private double[] matrices;
+	private int[] radii, contentRadii;
+	private byte[] beverages;
+	private Rectangle[] glassBounds;
+	private double[] matrix;
+	private AffineTransform glassTransform, layerTransform;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new empty layer. The image is created once the layer is first drawn.
+	 */
+	public TableLayer()
+	{
+		this.image = null;
+		this.bounds = new Rectangle();
+		this.glassAmount = -1;
+		this.matrices = new double[16 * MATRIX_SIZE];
+		this.radii = new int[16];
+		this.contentRadii = new int[16];
+		this.beverages = new byte[16];
+		this.glassBounds = new Rectangle[16];
+		this.matrix = new double[MATRIX_SIZE];
+		this.glassTransform = new AffineTransform();
+		this.layerTransform = new AffineTransform();
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Draws the glasses of a snapshot, updating the cached image where necessary
+	 * @param g2d The graphics object that does the drawing
+	 * @param snapshot The snapshot that holds the glasses
+	 */
+	public void draw(Graphics2D g2d, RenderSnapshot snapshot)
+	{
+		update(g2d, snapshot);
+		
+		if (this.image != null)
+			g2d.drawImage(this.image, this.bounds.x, this.bounds.y, null);
+	}
+	
+	private void update(Graphics2D g2d, RenderSnapshot snapshot)
+	{
+		int amount = snapshot.getGlassAmount();
+		if (amount != this.glassAmount)
+		{
+			redrawAll(g2d, snapshot);
+			return;
+		}
+		
+		Graphics2D layer = null;
+		try
+		{
+			for (int i = 0; i < amount; i++)
+			{
+				if (hasSameGlass(snapshot, i))
+					continue;
+				
+				// The glass' old and new areas are cleared and drawn again
+				Rectangle dirty = new Rectangle(this.glassBounds[i]);
+				store(snapshot, i);
+				Rectangle newArea = this.glassBounds[i];
+				if (!this.bounds.contains(newArea))
+				{
+					redrawAll(g2d, snapshot);
+					return;
+				}
+				dirty.add(newArea);
+				
+				if (layer == null)
+					layer = this.image.createGraphics();
+				redrawArea(layer, dirty);
+			}
+		}
+		finally
+		{
+			if (layer != null)
+				layer.dispose();
+		}
+	}
+	
+	private void redrawAll(Graphics2D g2d, RenderSnapshot snapshot)
+	{
+		int amount = snapshot.getGlassAmount();
+		if (this.radii.length < amount)
+		{
+			int capacity = amount * 2;
+			this.matrices = Arrays.copyOf(this.matrices, capacity * MATRIX_SIZE);
+			this.radii = Arrays.copyOf(this.radii, capacity);
+			this.contentRadii = Arrays.copyOf(this.contentRadii, capacity);
+			this.beverages = Arrays.copyOf(this.beverages, capacity);
+			this.glassBounds = Arrays.copyOf(this.glassBounds, capacity);
+		}
+		
+		this.glassAmount = amount;
+		Rectangle bounds = null;
+		for (int i = 0; i < amount; i++)
+		{
+			store(snapshot, i);
+			if (bounds == null)
+				bounds = new Rectangle(this.glassBounds[i]);
+			else
+				bounds.add(this.glassBounds[i]);
+		}
+		
+		if (bounds == null)
+		{
+			this.image = null;
+			return;
+		}
+		
+		// The image is only recreated when the table no longer fits in it
+		if (this.image == null || !this.bounds.contains(bounds))
+		{
+			this.bounds = bounds;
+			this.image = g2d.getDeviceConfiguration().createCompatibleImage(bounds.width, 
+					bounds.height, Transparency.TRANSLUCENT);
+		}
+		
+		Graphics2D layer = this.image.createGraphics();
+		try
+		{
+			redrawArea(layer, new Rectangle(this.bounds));
+		}
+		finally
+		{
+			layer.dispose();
+		}
+	}
+	
+	private void redrawArea(Graphics2D layer, Rectangle area)
+	{
+		// The area is given in table coordinates
+		layer.setTransform(new AffineTransform());
+		layer.setClip(area.x - this.bounds.x, area.y - this.bounds.y, area.width, 
+				area.height);
+		layer.setComposite(AlphaComposite.Clear);
+		layer.fillRect(area.x - this.bounds.x, area.y - this.bounds.y, area.width, 
+				area.height);
+		layer.setComposite(AlphaComposite.SrcOver);
+		
+		for (int i = 0; i < this.glassAmount; i++)
+		{
+			if (!area.intersects(this.glassBounds[i]))
+				continue;
+			
+			setGlassTransform(i);
+			this.layerTransform.setToTranslation(-this.bounds.x, -this.bounds.y);
+			this.layerTransform.concatenate(this.glassTransform);
+			layer.setTransform(this.layerTransform);
+			RenderSnapshot.drawGlass(layer, this.radii[i], this.contentRadii[i], 
+					this.beverages[i]);
+		}
+	}
+	
+	private boolean hasSameGlass(RenderSnapshot snapshot, int index)
+	{
+		if (snapshot.getGlassRadius(index) != this.radii[index] || 
+				snapshot.getContentRadius(index) != this.contentRadii[index] || 
+				snapshot.getGlassBeverage(index) != this.beverages[index])
+			return false;
+		
+		snapshot.getGlassMatrix(index, this.matrix);
+		for (int i = 0; i < MATRIX_SIZE; i++)
+		{
+			if (this.matrix[i] != this.matrices[index * MATRIX_SIZE + i])
+				return false;
+		}
+		return true;
+	}
+	
+	private void store(RenderSnapshot snapshot, int index)
+	{
+		this.radii[index] = snapshot.getGlassRadius(index);
+		this.contentRadii[index] = snapshot.getContentRadius(index);
+		this.beverages[index] = snapshot.getGlassBeverage(index);
+		snapshot.getGlassMatrix(index, this.matrix);
+		System.arraycopy(this.matrix, 0, this.matrices, index * MATRIX_SIZE, MATRIX_SIZE);
+		
+		// The area the glass covers in table coordinates
+		setGlassTransform(index);
+		int radius = this.radii[index] + MARGIN;
+		this.glassBounds[index] = this.glassTransform.createTransformedShape( 
+				new Rectangle2D.Double(-radius, -radius, radius * 2, radius * 2)).getBounds();
+	}
+	
+	private void setGlassTransform(int index)
+	{
+		int start = index * MATRIX_SIZE;
+		this.glassTransform.setTransform(this.matrices[start], this.matrices[start + 1], 
+				this.matrices[start + 2], this.matrices[start + 3], this.matrices[start + 4], 
+				this.matrices[start + 5]);
+	}
+}
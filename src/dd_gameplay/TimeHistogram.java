@@ -0,0 +1,107 @@
+package dd_gameplay;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * TimeHistogram counts durations into fixed buckets. Recording a duration doesn't lock or
+ * allocate anything, so it can be done on the hot paths and from multiple threads.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class TimeHistogram
+{
+	// ATTRIBUTES	--------------------
+	
+	// The upper bounds of the buckets in nanoseconds
+	private static final long[] BOUNDS = {1000L, 2500L, 5000L, 10000L, 25000L, 50000L, 
+			100000L, 250000L, 500000L, 1000000L, 2500000L, 5000000L, 10000000L, 25000000L,
+			50000000L, 100000000L, 250000000L, 1000000000L};
+	
+	private AtomicLongArray counts;
+	private AtomicLong sum;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new empty histogram
+	 */
+	public TimeHistogram()
+	{
+		this.counts = new AtomicLongArray(BOUNDS.length + 1);
+		this.sum = new AtomicLong();
+	}
+	
+	
+	// ACCESSORS	--------------------
+	
+	/**
+	 * @return How many durations have been recorded
+	 */
+	public long getCount()
+	{
+		long count = 0;
+		for (int i = 0; i < this.counts.length(); i++)
+		{
+			count += this.counts.get(i);
+		}
+		return count;
+	}
+	
+	/**
+	 * @return The sum of all the recorded durations (in nanoseconds)
+	 */
+	public long getSum()
+	{
+		return this.sum.get();
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Records a duration
+	 * @param nanos The duration in nanoseconds
+	 */
+	public void record(long nanos)
+	{
+		int bucket = 0;
+		while (bucket < BOUNDS.length && nanos > BOUNDS[bucket])
+		{
+			bucket ++;
+		}
+		
+		this.counts.incrementAndGet(bucket);
+		this.sum.addAndGet(nanos);
+	}
+	
+	/**
+	 * Writes the histogram in the Prometheus text format. The type line should be written
+	 * separately.
+	 * @param out The builder the histogram is written to
+	 * @param name The name of the metric
+	 * @param labels The labels of the histogram (eg. "query=\"closest\""). Empty if the
+	 * histogram has no labels.
+	 */
+	public void writePrometheus(StringBuilder out, String name, String labels)
+	{
+		String separator = labels.isEmpty() ? "" : ",";
+		long cumulative = 0;
+		for (int i = 0; i <= BOUNDS.length; i++)
+		{
+			cumulative += this.counts.get(i);
+			String bound = i < BOUNDS.length ? String.format(Locale.ROOT, "%.6f", 
+					BOUNDS[i] / 1000000000.0) : "+Inf";
+			out.append(name).append("_bucket{").append(labels).append(separator).append( 
+					"le=\"").append(bound).append("\"} ").append(cumulative).append('\n');
+		}
+		
+		String labelPart = labels.isEmpty() ? "" : "{" + labels + "}";
+		String sum = String.format(Locale.ROOT, "%.9f", this.sum.get() / 1000000000.0);
+		out.append(name).append("_sum").append(labelPart).append(' ').append(sum).append('\n');
+		out.append(name).append("_count").append(labelPart).append(' ').append( 
+				cumulative).append('\n');
+	}
+}
@@ -0,0 +1,262 @@
+package dd_gameplay;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import genesis_event.HandlerRelay;
+import genesis_util.Vector3D;
+
+/**
+ * WorldSnapshot saves the whole game world (the glasses and all the dolphins in them or
+ * between them) to a compact binary file and loads it back. The files are memory-mapped,
+ * so that even very large worlds can be written and restored in bulk.
+ * <p>
+ * The file starts with a header (magic number, version, glass and dolphin amounts). The
+ * glasses follow, each directly followed by the dolphins swimming in it. The jumping and
+ * stranded dolphins are written last. All values are little-endian.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class WorldSnapshot
+{
+	// ATTRIBUTES	--------------------
+	
+	/**
+	 * The version of the snapshot format written by this class
+	 */
+	public static final short VERSION = 1;
+	
+	// "DDWS" in ASCII
+	private static final int MAGIC = 0x44445753;
+	
+	private static final int HEADER_SIZE = 16;
+	private static final int GLASS_SIZE = 34;
+	private static final int DATA_SIZE = 13;
+	/**
+	 * The size of a single swimming dolphin (data + kinematics) in bytes
+	 */
+	static final int SWIMMING_SIZE = DATA_SIZE + 25;
+	private static final int JUMPING_SIZE = 1 + DATA_SIZE + 64;
+	private static final int STRANDED_SIZE = 1 + DATA_SIZE + 48;
+	
+	private static final byte JUMPING = 1;
+	private static final byte STRANDED = 2;
+	
+	private static final Beverage[] BEVERAGES = Beverage.values();
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	private WorldSnapshot()
+	{
+		// The interface is static
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Writes the world to a file. An existing file is replaced.
+	 * @param file The file the world is written to
+	 * @param glasses All the glasses in the world. The dolphins swimming in the glasses are
+	 * written along with them.
+	 * @param dolphins The dolphins that are not in any glass (jumping or stranded).
+	 * Swimming and removed dolphins are skipped.
+	 * @throws IOException If the file couldn't be written
+	 */
+	public static void write(Path file, List<Glass> glasses, List<Dolphin> dolphins) 
+			throws IOException
+	{
+		// Calculates the file size first so that the whole file can be mapped at once
+		List<Dolphin> freeDolphins = new ArrayList<>(dolphins.size());
+		long size = HEADER_SIZE;
+		for (Glass glass : glasses)
+		{
+			size += GLASS_SIZE + (long) glass.getHandler().getDolphinAmount() * SWIMMING_SIZE;
+		}
+		for (Dolphin dolphin : dolphins)
+		{
+			if (dolphin.getIsDeadStateOperator().getState())
+				continue;
+			if (dolphin.getState() instanceof JumpingDolphin)
+				size += JUMPING_SIZE;
+			else if (dolphin.getState() instanceof StrandedDolphin)
+				size += STRANDED_SIZE;
+			else
+				continue;
+			freeDolphins.add(dolphin);
+		}
+		
+		if (size > Integer.MAX_VALUE)
+			throw new IOException("The world is too large to be written to a single snapshot");
+		
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, 
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, 
+				StandardOpenOption.WRITE))
+		{
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			
+			buffer.putInt(MAGIC);
+			buffer.putShort(VERSION);
+			buffer.putShort((short) 0);
+			buffer.putInt(glasses.size());
+			buffer.putInt(freeDolphins.size());
+			
+			for (Glass glass : glasses)
+			{
+				Vector3D position = glass.getTransformation().getPosition();
+				buffer.putDouble(position.getFirst());
+				buffer.putDouble(position.getSecond());
+				buffer.putInt(glass.getRadius());
+				buffer.put((byte) glass.getBeverage().ordinal());
+				buffer.putDouble(glass.getFill());
+				buffer.put((byte) (glass.getHandler().hasStore() ? 1 : 0));
+				buffer.putInt(glass.getHandler().getDolphinAmount());
+				glass.getHandler().writeDolphins(buffer);
+			}
+			
+			for (Dolphin dolphin : freeDolphins)
+			{
+				DolphinState state = dolphin.getState();
+				if (state instanceof JumpingDolphin)
+				{
+					buffer.put(JUMPING);
+					writeData(buffer, dolphin.getData());
+					((JumpingDolphin) state).writeTo(buffer);
+				}
+				else
+				{
+					buffer.put(STRANDED);
+					writeData(buffer, dolphin.getData());
+					((StrandedDolphin) state).writeTo(buffer);
+				}
+			}
+			
+			buffer.force();
+		}
+	}
+	
+	/**
+	 * Loads a world from a file and creates all the glasses and dolphins in it
+	 * @param file The file the world is read from
+	 * @param handlers The handlers that will handle the created objects. Should contain a
+	 * glassRelay.
+	 * @return The glasses that were created
+	 * @throws IOException If the file couldn't be read or isn't a valid snapshot
+	 */
+	public static List<Glass> load(Path file, HandlerRelay handlers) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("The snapshot is too large");
+			
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, 
+					channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			
+			if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC)
+				throw new IOException(file + " is not a world snapshot");
+			short version = buffer.getShort();
+			if (version != VERSION)
+				throw new IOException("Unsupported snapshot version " + version);
+			buffer.getShort();
+			int glassAmount = buffer.getInt();
+			int dolphinAmount = buffer.getInt();
+			
+			// The glasses must exist before the jumping dolphins look for their targets
+			List<Glass> glasses = new ArrayList<>(glassAmount);
+			for (int i = 0; i < glassAmount; i++)
+			{
+				Vector3D position = new Vector3D(buffer.getDouble(), buffer.getDouble());
+				int radius = buffer.getInt();
+				Beverage beverage = readBeverage(buffer);
+				double fill = buffer.getDouble();
+				boolean compact = buffer.get() != 0;
+				int swimmers = buffer.getInt();
+				
+				Glass glass = new Glass(handlers, position, beverage, radius, fill, compact);
+				glass.getHandler().readDolphins(glass, handlers, buffer, swimmers);
+				glasses.add(glass);
+			}
+			
+			for (int i = 0; i < dolphinAmount; i++)
+			{
+				byte stateType = buffer.get();
+				Dolphin dolphin = new Dolphin(handlers, readData(buffer));
+				if (stateType == JUMPING)
+					dolphin.setState(new JumpingDolphin(dolphin, buffer));
+				else if (stateType == STRANDED)
+					dolphin.setState(new StrandedDolphin(dolphin, buffer));
+				else
+					throw new IOException("Invalid dolphin state " + stateType);
+			}
+			
+			return glasses;
+		}
+		catch (BufferUnderflowException e)
+		{
+			throw new IOException(file + " is truncated", e);
+		}
+	}
+	
+	/**
+	 * Writes a dolphin's data in the snapshot format
+	 * @param buffer The buffer the data is written to
+	 * @param data The data that is written
+	 */
+	static void writeData(ByteBuffer buffer, DolphinData data)
+	{
+		writeData(buffer, data.getDrinkType(), data.getDrunkness(), data.getHealth());
+	}
+	
+	/**
+	 * Writes a dolphin's data in the snapshot format
+	 * @param buffer The buffer the data is written to
+	 * @param drinkType The type of drink the dolphin drinks
+	 * @param drunkness How drunk the dolphin is
+	 * @param health How much health the dolphin has
+	 */
+	static void writeData(ByteBuffer buffer, Beverage drinkType, int drunkness, double health)
+	{
+		buffer.put((byte) drinkType.ordinal());
+		buffer.putInt(drunkness);
+		buffer.putDouble(health);
+	}
+	
+	/**
+	 * Reads a dolphin's data written in the snapshot format
+	 * @param buffer The buffer the data is read from
+	 * @return The dolphin's data
+	 * @throws IOException If the data is invalid
+	 */
+	static DolphinData readData(ByteBuffer buffer) throws IOException
+	{
+		Beverage drinkType = readBeverage(buffer);
+		int drunkness = buffer.getInt();
+		return new DolphinData(drinkType, drunkness, buffer.getDouble());
+	}
+	
+	/**
+	 * Reads a beverage written in the snapshot format
+	 * @param buffer The buffer the beverage is read from
+	 * @return The beverage
+	 * @throws IOException If the beverage is invalid
+	 */
+	static Beverage readBeverage(ByteBuffer buffer) throws IOException
+	{
+		byte ordinal = buffer.get();
+		if (ordinal < 0 || ordinal >= BEVERAGES.length)
+			throw new IOException("Invalid beverage " + ordinal);
+		return BEVERAGES[ordinal];
+	}
+}
@@ -1,7 +1,7 @@
 package dd_main;
 
 import dd_gameplay.Glass;
-import dd_gameplay.SwimmingDolphin;
+import dd_gameplay.MouseTarget;
 import genesis_event.HandlerType;
 
 /**
@@ -12,13 +12,13 @@ import genesis_event.HandlerType;
 public enum DDHandlerType implements HandlerType
 {
 	/**
-	 * Glasses handle a bunch of swimming dolphins
+	 * The glassRelay holds all the glasses in the game
 	 */
-	GLASS,
+	GLASSRELAY, 
 	/**
-	 * The glassRelay holds all the glasses in the game
+	 * The mouse hit tester passes the mouse events to the objects near the mouse
 	 */
-	GLASSRELAY;
+	MOUSEHITTESTER;
 	
 	
 	// METHODS	--------------------
@@ -28,8 +28,8 @@ public enum DDHandlerType implements HandlerType
 	{
 		switch (this)
 		{
-			case GLASS: return SwimmingDolphin.class;
 			case GLASSRELAY: return Glass.class;
+			case MOUSEHITTESTER: return MouseTarget.class;
 		}
 		
 		return null;
@@ -0,0 +1,108 @@
+package dd_main;
+
+import java.util.concurrent.ForkJoinPool;
+
+import dd_gameplay.GameRandom;
+import dd_gameplay.GlassRelay;
+import genesis_event.HandlerRelay;
+
+/**
+ * This class runs the dolphin simulation without a game window, drawing or mouse input. 
+ * It can be used for measuring the raw simulation throughput.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class HeadlessMain
+{
+	// CONSTRUCTOR	--------------------
+	
+	private HeadlessMain()
+	{
+		// The interface is static
+	}
+
+	
+	// MAIN METHOD	--------------------
+	
+	/**
+	 * Runs the simulation without a window
+	 * @param args The random seed, the amount of steps to simulate, the amount of steps 
+	 * per second (0 for running as fast as possible) and the amount of threads used for 
+	 * stepping the world (0 for one per processor). All are optional and default to 
+	 * 0, 10000, 0 and 1.
+	 */
+	public static void main(String[] args)
+	{
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : 0;
+		int steps = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+		int stepsPerSecond = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+		
+		GameRandom.setSeed(seed);
+		
+		// Sets up the handlers (no drawing or mouse handling)
+		HandlerRelay handlers = new HandlerRelay();
+		ForkJoinPool pool = null;
+		if (threads != 1)
+			pool = new ForkJoinPool(threads > 0 ? threads : 
+					Runtime.getRuntime().availableProcessors());
+		SimulationActorHandler actorHandler = new SimulationActorHandler(pool);
+		handlers.addHandler(actorHandler);
+		handlers.addHandler(new GlassRelay());
+		
+		Main.createScene(handlers);
+		
+		// Runs the simulation
+		long stepNanos = stepsPerSecond > 0 ? 1000000000L / stepsPerSecond : 0;
+		long startTime = System.nanoTime();
+		long reportTime = startTime;
+		int stepsSinceReport = 0;
+		
+		for (int i = 0; i < steps; i++)
+		{
+			actorHandler.step(1);
+			stepsSinceReport ++;
+			
+			long currentTime = System.nanoTime();
+			
+			// Reports the speed once every second
+			if (currentTime - reportTime >= 1000000000L)
+			{
+				System.out.println(formatRate(stepsSinceReport, currentTime - reportTime));
+				reportTime = currentTime;
+				stepsSinceReport = 0;
+			}
+			
+			// Waits until the next step, if necessary
+			if (stepNanos > 0)
+			{
+				long sleepNanos = startTime + (i + 1) * stepNanos - System.nanoTime();
+				if (sleepNanos > 0)
+				{
+					try
+					{
+						Thread.sleep(sleepNanos / 1000000, (int) (sleepNanos % 1000000));
+					}
+					catch (InterruptedException e)
+					{
+						break;
+					}
+				}
+			}
+		}
+		
+		long totalTime = System.nanoTime() - startTime;
+		System.out.println("Total: " + steps + " steps, " + formatRate(steps, totalTime));
+		
+		if (pool != null)
+			pool.shutdown();
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	private static String formatRate(int steps, long nanos)
+	{
+		return String.format("%.1f steps / second", steps * 1000000000.0 / nanos);
+	}
+}
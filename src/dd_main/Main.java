@@ -1,12 +1,21 @@
 package dd_main;
 
 import java.awt.Color;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 import dd_gameplay.Beverage;
+import dd_gameplay.Dolphin;
+import dd_gameplay.GameInput;
+import dd_gameplay.GameRandom;
 import dd_gameplay.Glass;
 import dd_gameplay.GlassRelay;
+import dd_gameplay.InputLog;
 import dd_gameplay.JumpArrow;
-import dd_gameplay.SwimmingDolphin;
+import dd_gameplay.LevelOfDetail;
+import dd_gameplay.MouseHitTester;
 import genesis_event.ActorHandler;
 import genesis_event.DrawableHandler;
 import genesis_event.HandlerRelay;
@@ -44,26 +53,137 @@ public class Main
 	
 	/**
 	 * Starts the game
-	 * @param args Not used at this time
+	 * @param args Stress scenario settings (key=value) for building a custom table. 
+	 * Optional, the default table is used when no arguments are given. In addition, 
+	 * record=&lt;file&gt; records the session's input so that it can be replayed later, 
+	 * speed=&lt;multiplier&gt; fast-forwards the game and step=&lt;duration&gt; changes 
+	 * the length of a simulation step (in window steps, 2 simulates at half the rate). 
+	 * detail=&lt;amount&gt; sets how many dolphins a glass may have before it is drawn 
+	 * as a crowd.
+	 * @see StressScenario
+	 * @see ReplayMain
 	 */
 	public static void main(String[] args)
 	{
+		// The recording and the speed are not a part of the scene settings
+		String recordFile = null;
+		double speed = 1;
+		double stepDuration = 1;
+		List<String> sceneArgs = new ArrayList<>();
+		for (String arg : args)
+		{
+			if (arg.startsWith("record="))
+				recordFile = arg.substring("record=".length());
+			else if (arg.startsWith("speed="))
+				speed = Double.parseDouble(arg.substring("speed=".length()));
+			else if (arg.startsWith("step="))
+				stepDuration = Double.parseDouble(arg.substring("step=".length()));
+			else if (arg.startsWith("detail="))
+				LevelOfDetail.setMaxDolphins(Integer.parseInt(arg.substring( 
+						"detail=".length())));
+			else
+				sceneArgs.add(arg);
+		}
+		
+		StressScenario scenario = null;
+		if (!sceneArgs.isEmpty())
+		{
+			try
+			{
+				scenario = StressScenario.parse(sceneArgs.toArray(new String[sceneArgs.size()]));
+				MetricsServer metricsServer = scenario.startMetricsServer();
+				if (metricsServer != null)
+					Runtime.getRuntime().addShutdownHook(new MetricsServerStopper( 
+							metricsServer));
+			}
+			catch (IOException e)
+			{
+				System.err.println("Couldn't set up the scenario: " + e.getMessage());
+				return;
+			}
+		}
+		
+		// The session is always seeded so that it can be replayed
+		long seed = scenario == null ? System.nanoTime() : scenario.getSeed();
+		GameRandom.setSeed(seed);
+		
 		// Creates the window
 		GameWindow window = new GameWindow(resolution, "Drunken Dolphins", true, 120, 20);
 		GamePanel panel = window.getMainPanel().addGamePanel();
 		panel.setBackground(Color.WHITE);
 		
-		// Sets up the handlers
+		// Sets up the handlers. The window only draws the snapshots published by the 
+		// simulation, the game objects are stepped by the simulation handler. The mouse 
+		// input is collected and applied to the game between the steps.
+		GlassRelay glassRelay = new GlassRelay();
+		
+		HandlerRelay inputHandlers = new HandlerRelay();
+		inputHandlers.addHandler(new MouseListenerHandler(false, window.getHandlerRelay()));
+		GameInput input = new GameInput(inputHandlers);
+		
+		HandlerRelay windowHandlers = new HandlerRelay();
+		windowHandlers.addHandler(new DrawableHandler(false, panel.getDrawer()));
+		windowHandlers.addHandler(new ActorHandler(false, window.getStepHandler()));
+		windowHandlers.addHandler(glassRelay);
+		
 		HandlerRelay handlers = new HandlerRelay();
-		handlers.addHandler(new DrawableHandler(false, panel.getDrawer()));
-		handlers.addHandler(new ActorHandler(false, window.getStepHandler()));
-		handlers.addHandler(new MouseListenerHandler(false, window.getHandlerRelay()));
+		SimulationActorHandler simulation = new SimulationActorHandler();
+		MouseHitTester hitTester = new MouseHitTester();
+		handlers.addHandler(simulation);
+		handlers.addHandler(hitTester);
+		handlers.addHandler(glassRelay);
 		
-		handlers.addHandler(new GlassRelay());
+		// Creates the (test) objects. The arrow is a part of the user interface and is 
+		// drawn directly.
+		input.addReceiver(hitTester);
+		input.addReceiver(new JumpArrow(windowHandlers));
+		if (scenario == null)
+			createScene(handlers);
+		else
+		{
+			try
+			{
+				scenario.createScene(handlers);
+			}
+			catch (IOException e)
+			{
+				System.err.println("Couldn't load the world: " + e.getMessage());
+			}
+		}
+		
+		if (recordFile != null)
+		{
+			try
+			{
+				input.setRecorder(new InputLog.Recorder(Paths.get(recordFile), seed, 
+						StressScenario.joinSettings(sceneArgs)));
+				Runtime.getRuntime().addShutdownHook(new RecordingFinisher(input));
+			}
+			catch (IOException e)
+			{
+				System.err.println("Couldn't start recording: " + e.getMessage());
+			}
+		}
 		
-		// Creates the (test) objects
-		new JumpArrow(handlers);
+		// The simulation starts once the scene is complete
+		SimulationRunner runner = new SimulationRunner(windowHandlers, simulation, input, 
+				stepDuration);
+		runner.setSpeed(speed);
 		
+		new TextPerformanceMonitor(1000, window.getStepHandler());
+		//new StepHandler.PerformanceAccelerator(1000, window.getStepHandler());
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Creates the glasses and the dolphins used in the game
+	 * @param handlers The handlers that will handle the objects. Should contain a 
+	 * glassRelay.
+	 */
+	public static void createScene(HandlerRelay handlers)
+	{
 		Glass beerGlass = new Glass(handlers, new Vector3D(500, 600), Beverage.BEER, 150, 0.7);
 		new Glass(handlers, new Vector3D(1200, 500), Beverage.WHISKEY, 130, 0.8);
 		new Glass(handlers, new Vector3D(800, 300), 
@@ -71,10 +191,60 @@ public class Main
 		
 		for (int i = 0; i < 20; i++)
 		{
-			SwimmingDolphin.createDolphin(handlers, beerGlass);
+			Dolphin.createDolphin(beerGlass);
 		}
+	}
+	
+	
+	// SUBCLASSES	--------------------
+	
+	private static class RecordingFinisher extends Thread
+	{
+		// ATTRIBUTES	----------------
 		
-		new TextPerformanceMonitor(1000, window.getStepHandler());
-		//new StepHandler.PerformanceAccelerator(1000, window.getStepHandler());
+		private GameInput input;
+		
+		
+		// CONSTRUCTOR	----------------
+		
+		public RecordingFinisher(GameInput input)
+		{
+			this.input = input;
+		}
+		
+		
+		// IMPLEMENTED METHODS	--------
+		
+		@Override
+		public void run()
+		{
+			// Makes sure the recording is complete when the window is closed
+			this.input.stopRecording();
+		}
+	}
+	
+	private static class MetricsServerStopper extends Thread
+	{
+		// ATTRIBUTES	----------------
+		
+		private MetricsServer server;
+		
+		
+		// CONSTRUCTOR	----------------
+		
+		public MetricsServerStopper(MetricsServer server)
+		{
+			this.server = server;
+		}
+		
+		
+		// IMPLEMENTED METHODS	--------
+		
+		@Override
+		public void run()
+		{
+			// Releases the port and the server threads when the game is closed
+			this.server.stop();
+		}
 	}
 }
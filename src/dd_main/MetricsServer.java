@@ -0,0 +1,75 @@
+package dd_main;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import dd_gameplay.GameMetrics;
+
+/**
+ * MetricsServer publishes the game metrics in the Prometheus text format at
+ * http://localhost:&lt;port&gt;/metrics. The server only accepts local connections.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class MetricsServer
+{
+	// ATTRIBUTES	--------------------
+	
+	private HttpServer server;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Starts a new metrics server
+	 * @param port The port the server listens to
+	 * @throws IOException If the server couldn't be started
+	 */
+	public MetricsServer(int port) throws IOException
+	{
+		this.server = HttpServer.create(new InetSocketAddress( 
+				InetAddress.getLoopbackAddress(), port), 0);
+		this.server.createContext("/metrics", new MetricsHandler());
+		this.server.start();
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Stops the server
+	 */
+	public void stop()
+	{
+		this.server.stop(0);
+	}
+	
+	
+	// SUBCLASSES	--------------------
+	
+	private static class MetricsHandler implements HttpHandler
+	{
+		@Override
+		public void handle(HttpExchange exchange) throws IOException
+		{
+			StringBuilder text = new StringBuilder(4096);
+			GameMetrics.writePrometheus(text);
+			byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+			
+			exchange.getResponseHeaders().set("Content-Type", 
+					"text/plain; version=0.0.4; charset=utf-8");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream output = exchange.getResponseBody())
+			{
+				output.write(body);
+			}
+		}
+	}
+}
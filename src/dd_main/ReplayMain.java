@@ -0,0 +1,120 @@
+package dd_main;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+import dd_gameplay.GameInput;
+import dd_gameplay.GameRandom;
+import dd_gameplay.GlassRelay;
+import dd_gameplay.InputLog;
+import dd_gameplay.JumpArrow;
+import dd_gameplay.MouseHitTester;
+import genesis_event.HandlerRelay;
+
+/**
+ * This class replays a recorded session without a game window, as fast as possible. The
+ * scene is rebuilt with the recorded seed and settings, and the recorded input is applied
+ * on the same ticks, so the replay ends in the same state as the original session.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class ReplayMain
+{
+	// CONSTRUCTOR	--------------------
+	
+	private ReplayMain()
+	{
+		// The interface is static
+	}
+	
+	
+	// MAIN METHOD	--------------------
+	
+	/**
+	 * Replays a recorded session
+	 * @param args The input log file, the world snapshot file the final state is saved to
+	 * (optional, "-" for no snapshot) and the amount of threads used for stepping the
+	 * world (optional, 0 for one per processor, defaults to 1).
+	 * @see Main
+	 */
+	public static void main(String[] args)
+	{
+		if (args.length < 1)
+		{
+			System.err.println("Usage: ReplayMain <input log> [<final world file> [<threads>]]");
+			return;
+		}
+		String snapshotFile = args.length > 1 && !args[1].equals("-") ? args[1] : null;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+		
+		ForkJoinPool pool = null;
+		if (threads != 1)
+			pool = new ForkJoinPool(threads > 0 ? threads : 
+					Runtime.getRuntime().availableProcessors());
+		
+		try
+		{
+			InputLog.Player player = new InputLog.Player(Paths.get(args[0]));
+			try
+			{
+				replay(player, pool, snapshotFile);
+			}
+			finally
+			{
+				player.close();
+			}
+		}
+		catch (IOException e)
+		{
+			System.err.println("Couldn't replay the session: " + e.getMessage());
+		}
+		
+		if (pool != null)
+			pool.shutdown();
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	private static void replay(InputLog.Player player, ForkJoinPool pool, 
+			String snapshotFile) throws IOException
+	{
+		GameRandom.setSeed(player.getSeed());
+		
+		// Sets up the same game handlers as the game window does (no drawing)
+		HandlerRelay handlers = new HandlerRelay();
+		SimulationActorHandler simulation = new SimulationActorHandler(pool);
+		MouseHitTester hitTester = new MouseHitTester();
+		handlers.addHandler(simulation);
+		handlers.addHandler(hitTester);
+		handlers.addHandler(new GlassRelay());
+		
+		GameInput input = new GameInput(new HandlerRelay());
+		input.addReceiver(hitTester);
+		input.addReceiver(new JumpArrow(handlers));
+		
+		String[] settings = StressScenario.splitSettings(player.getSettings());
+		if (settings.length == 0)
+			Main.createScene(handlers);
+		else
+			StressScenario.parse(settings).createScene(handlers);
+		
+		// Runs the recorded ticks as fast as possible
+		long startTime = System.nanoTime();
+		while (!player.hasEnded(input.getTickCount()))
+		{
+			double duration = player.readTick(input.getTickCount(), input);
+			input.beginTick(duration);
+			simulation.step(duration);
+		}
+		long totalTime = System.nanoTime() - startTime;
+		
+		System.out.println(String.format("Replayed %d ticks in %.1f ms (%.1f ticks / second)", 
+				input.getTickCount(), totalTime / 1000000.0, 
+				input.getTickCount() * 1000000000.0 / Math.max(1, totalTime)));
+		
+		if (snapshotFile != null)
+			simulation.saveWorld(Paths.get(snapshotFile));
+	}
+}
@@ -0,0 +1,369 @@
+package dd_main;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import dd_gameplay.Dolphin;
+import dd_gameplay.GameMetrics;
+import dd_gameplay.Glass;
+import dd_gameplay.JumpingDolphin;
+import dd_gameplay.LandingBatch;
+import dd_gameplay.RenderSnapshot;
+import dd_gameplay.RenderSnapshotBuffer;
+import dd_gameplay.SwimmingDolphin;
+import dd_gameplay.WorldSnapshot;
+import genesis_event.Actor;
+import genesis_event.GenesisHandlerType;
+import genesis_event.Handler;
+import genesis_event.HandlerType;
+
+/**
+ * SimulationActorHandler informs all the actors about the passed time. Unlike the
+ * actorHandlers in the game window, this handler doesn't run on its own but is stepped
+ * manually, which makes it usable without a window. The handler can also step the world
+ * in parallel, in which case each glass steps its own dolphins in a separate task. The 
+ * dolphins that land during a step are landed together at the end of the step.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class SimulationActorHandler extends Handler<Actor>
+{
+	// ATTRIBUTES	--------------------
+	
+	private static final int DOLPHIN_CHUNK_SIZE = 256;
+	
+	private double stepDuration;
+	private ForkJoinPool pool;
+	private List<Glass> glasses;
+	private List<Dolphin> dolphins;
+	private List<Actor> otherActors;
+	private RenderSnapshotBuffer snapshots;
+	private LandingBatch landings;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new handler that steps the actors one after another
+	 */
+	public SimulationActorHandler()
+	{
+		this(null);
+	}
+	
+	/**
+	 * Creates a new handler
+	 * @param pool The pool that steps the glasses and dolphins in parallel. Null if the
+	 * actors should be stepped one after another.
+	 */
+	public SimulationActorHandler(ForkJoinPool pool)
+	{
+		super(false);
+		
+		this.stepDuration = 0;
+		this.pool = pool;
+		this.glasses = new ArrayList<>();
+		this.dolphins = new ArrayList<>();
+		this.otherActors = new ArrayList<>();
+		this.snapshots = null;
+		this.landings = new LandingBatch();
+	}
+	
+	
+	// IMPLEMENTED METHODS	------------
+	
+	@Override
+	public HandlerType getHandlerType()
+	{
+		return GenesisHandlerType.ACTORHANDLER;
+	}
+	
+	@Override
+	protected boolean handleObject(Actor h)
+	{
+		// The jumping dolphins don't land until the whole world has been stepped
+		if (h instanceof Dolphin && ((Dolphin) h).getState() instanceof JumpingDolphin)
+		{
+			Dolphin dolphin = (Dolphin) h;
+			dolphin.actLocally(this.stepDuration);
+			dolphin.finishStep(this.landings);
+		}
+		else
+			h.act(this.stepDuration);
+		
+		return true;
+	}
+	
+	
+	// ACCESSORS	--------------------
+	
+	/**
+	 * Changes the buffer the state of the world is published to after each step
+	 * @param snapshots The buffer that receives a render snapshot after each step. Null if 
+	 * no snapshots should be made.
+	 */
+	public void setSnapshotBuffer(RenderSnapshotBuffer snapshots)
+	{
+		this.snapshots = snapshots;
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Makes all the actors act once and publishes the resulting state
+	 * @param duration How long a duration the step represents (in steps)
+	 */
+	public void step(double duration)
+	{
+		step(duration, true);
+	}
+	
+	/**
+	 * Makes all the actors act once
+	 * @param duration How long a duration the step represents (in steps)
+	 * @param publish Should the resulting state be published to the snapshot buffer. The 
+	 * intermediate steps that are never drawn don't need to be published.
+	 */
+	public void step(double duration, boolean publish)
+	{
+		this.stepDuration = duration;
+		long startTime = System.nanoTime();
+		
+		if (this.pool == null)
+			handleObjects(true);
+		else
+			stepInParallel(duration);
+		this.landings.landAll();
+		
+		GameMetrics.recordTick(System.nanoTime() - startTime);
+		if (publish)
+			publishSnapshot();
+	}
+	
+	/**
+	 * Saves the current state of the world to a file. This mustn't be called while the 
+	 * world is being stepped.
+	 * @param file The file the world is written to
+	 * @throws IOException If the file couldn't be written
+	 * @see WorldSnapshot
+	 */
+	public void saveWorld(Path file) throws IOException
+	{
+		// Swimming dolphins are saved along with their glasses
+		handleObjects(new ActorSortingOperator(), true);
+		try
+		{
+			WorldSnapshot.write(file, this.glasses, this.dolphins);
+		}
+		finally
+		{
+			this.glasses.clear();
+			this.dolphins.clear();
+			this.otherActors.clear();
+		}
+	}
+	
+	private void publishSnapshot()
+	{
+		if (this.snapshots == null)
+			return;
+		
+		// The tick is skipped if the renderer is still busy with the buffer
+		RenderSnapshot snapshot = this.snapshots.beginWrite();
+		if (snapshot != null)
+		{
+			handleObjects(new SnapshotWritingOperator(snapshot), true);
+			this.snapshots.endWrite();
+		}
+	}
+	
+	private void stepInParallel(double duration)
+	{
+		// Sorts the actors first. Swimming dolphins are stepped by their glasses.
+		handleObjects(new ActorSortingOperator(), true);
+		
+		// Glasses and dolphins are stepped in parallel, since they only affect themselves
+		this.pool.invoke(new WorldStepTask(duration));
+		
+		// The effects on other objects (landings) are applied afterwards
+		for (Dolphin dolphin : this.dolphins)
+		{
+			dolphin.finishStep(this.landings);
+		}
+		for (Actor actor : this.otherActors)
+		{
+			actor.act(duration);
+		}
+		
+		this.glasses.clear();
+		this.dolphins.clear();
+		this.otherActors.clear();
+	}
+	
+	
+	// SUBCLASSES	--------------------
+	
+	private class ActorSortingOperator extends HandlingOperator
+	{
+		@Override
+		protected boolean handleObject(Actor h)
+		{
+			if (h instanceof Glass)
+				SimulationActorHandler.this.glasses.add((Glass) h);
+			else if (h instanceof Dolphin)
+			{
+				Dolphin dolphin = (Dolphin) h;
+				if (!(dolphin.getState() instanceof SwimmingDolphin))
+					SimulationActorHandler.this.dolphins.add(dolphin);
+			}
+			else
+				SimulationActorHandler.this.otherActors.add(h);
+			
+			return true;
+		}
+	}
+	
+	private class SnapshotWritingOperator extends HandlingOperator
+	{
+		// ATTRIBUTES	----------------
+		
+		private RenderSnapshot snapshot;
+		
+		
+		// CONSTRUCTOR	----------------
+		
+		public SnapshotWritingOperator(RenderSnapshot snapshot)
+		{
+			this.snapshot = snapshot;
+		}
+		
+		
+		// IMPLEMENTED METHODS	--------
+		
+		@Override
+		protected boolean handleObject(Actor h)
+		{
+			// Swimming dolphins are recorded along with their glasses
+			if (h instanceof Glass)
+				this.snapshot.addGlass((Glass) h);
+			else if (h instanceof Dolphin && 
+					!(((Dolphin) h).getState() instanceof SwimmingDolphin))
+				this.snapshot.addDolphin((Dolphin) h);
+			
+			return true;
+		}
+	}
+	
+	private class WorldStepTask extends RecursiveAction
+	{
+		// ATTRIBUTES	----------------
+		
+		private static final long serialVersionUID = 1L;
+		private double duration;
+		
+		
+		// CONSTRUCTOR	----------------
+		
+		public WorldStepTask(double duration)
+		{
+			this.duration = duration;
+		}
+		
+		
+		// IMPLEMENTED METHODS	--------
+		
+		@Override
+		protected void compute()
+		{
+			invokeAll(new GlassStepTask(this.duration, 0, 
+					SimulationActorHandler.this.glasses.size()), new DolphinStepTask(
+					this.duration, 0, SimulationActorHandler.this.dolphins.size()));
+		}
+	}
+	
+	private class GlassStepTask extends RecursiveAction
+	{
+		// ATTRIBUTES	----------------
+		
+		private static final long serialVersionUID = 1L;
+		private double duration;
+		private int start, end;
+		
+		
+		// CONSTRUCTOR	----------------
+		
+		public GlassStepTask(double duration, int start, int end)
+		{
+			this.duration = duration;
+			this.start = start;
+			this.end = end;
+		}
+		
+		
+		// IMPLEMENTED METHODS	--------
+		
+		@Override
+		protected void compute()
+		{
+			// Each glass is a task of its own
+			if (this.end - this.start > 1)
+			{
+				int middle = (this.start + this.end) / 2;
+				invokeAll(new GlassStepTask(this.duration, this.start, middle), 
+						new GlassStepTask(this.duration, middle, this.end));
+			}
+			else if (this.end > this.start)
+			{
+				Glass glass = SimulationActorHandler.this.glasses.get(this.start);
+				glass.act(this.duration);
+				glass.getHandler().stepDolphins(this.duration);
+			}
+		}
+	}
+	
+	private class DolphinStepTask extends RecursiveAction
+	{
+		// ATTRIBUTES	----------------
+		
+		private static final long serialVersionUID = 1L;
+		private double duration;
+		private int start, end;
+		
+		
+		// CONSTRUCTOR	----------------
+		
+		public DolphinStepTask(double duration, int start, int end)
+		{
+			this.duration = duration;
+			this.start = start;
+			this.end = end;
+		}
+		
+		
+		// IMPLEMENTED METHODS	--------
+		
+		@Override
+		protected void compute()
+		{
+			// The dolphins are stepped in chunks
+			if (this.end - this.start > DOLPHIN_CHUNK_SIZE)
+			{
+				int middle = (this.start + this.end) / 2;
+				invokeAll(new DolphinStepTask(this.duration, this.start, middle), 
+						new DolphinStepTask(this.duration, middle, this.end));
+			}
+			else
+			{
+				for (int i = this.start; i < this.end; i++)
+				{
+					SimulationActorHandler.this.dolphins.get(i).actLocally(this.duration);
+				}
+			}
+		}
+	}
+}
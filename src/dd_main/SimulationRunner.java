@@ -0,0 +1,142 @@
+package dd_main;
+
+import java.awt.Graphics2D;
+
+import dd_gameplay.GameInput;
+import dd_gameplay.RenderSnapshotBuffer;
+import genesis_event.Actor;
+import genesis_event.Drawable;
+import genesis_event.HandlerRelay;
+import genesis_util.DepthConstants;
+import genesis_util.SimpleHandled;
+
+/**
+ * SimulationRunner connects the simulation to the game window. The simulation is stepped
+ * on the window's step thread, while the drawing thread only draws the render snapshots
+ * the simulation publishes. This way a slow frame doesn't slow down the game logic. The 
+ * collected input is applied at the beginning of each step.
+ * <p>
+ * The simulation always advances in steps of the same length, no matter how long the 
+ * frames take. The frame time is accumulated and as many fixed steps are run as fit in 
+ * it, while the dolphins are drawn between the two latest steps. The game can also be 
+ * fast-forwarded, in which case multiple steps are run for each frame. The amount of 
+ * steps per frame is limited, so that a slow host falls behind instead of getting stuck 
+ * catching up.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class SimulationRunner extends SimpleHandled implements Actor, Drawable
+{
+	// ATTRIBUTES	--------------------
+	
+	private SimulationActorHandler simulation;
+	private GameInput input;
+	private RenderSnapshotBuffer snapshots;
+	private double stepDuration, speed, accumulator;
+	private volatile double interpolation;
+	
+	private static final int MAX_CATCH_UP_STEPS = 4;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new runner
+	 * @param windowHandlers The handlers of the game window. Should contain an actorHandler
+	 * and a drawableHandler.
+	 * @param simulation The handler that steps the game objects
+	 * @param input The input that is applied to the game before each step
+	 */
+	public SimulationRunner(HandlerRelay windowHandlers, SimulationActorHandler simulation, 
+			GameInput input)
+	{
+		this(windowHandlers, simulation, input, 1);
+	}
+	
+	/**
+	 * Creates a new runner
+	 * @param windowHandlers The handlers of the game window. Should contain an actorHandler
+	 * and a drawableHandler.
+	 * @param simulation The handler that steps the game objects
+	 * @param input The input that is applied to the game before each step
+	 * @param stepDuration The duration of a single simulation step (in window steps). 
+	 * For example, 2 runs the simulation at half the rate of the window.
+	 */
+	public SimulationRunner(HandlerRelay windowHandlers, SimulationActorHandler simulation, 
+			GameInput input, double stepDuration)
+	{
+		super(windowHandlers);
+		
+		this.simulation = simulation;
+		this.input = input;
+		this.snapshots = new RenderSnapshotBuffer();
+		this.stepDuration = stepDuration;
+		this.speed = 1;
+		this.accumulator = 0;
+		this.interpolation = 1;
+		
+		simulation.setSnapshotBuffer(this.snapshots);
+	}
+	
+	
+	// IMPLEMENTED METHODS	------------
+	
+	@Override
+	public void act(double duration)
+	{
+		this.accumulator += duration * this.speed;
+		
+		int steps = (int) (this.accumulator / this.stepDuration);
+		int maxSteps = (int) Math.ceil(this.speed / this.stepDuration) + MAX_CATCH_UP_STEPS;
+		if (steps > maxSteps)
+		{
+			// The time that can't be caught up with is dropped
+			steps = maxSteps;
+			this.accumulator = maxSteps * this.stepDuration + 
+					this.accumulator % this.stepDuration;
+		}
+		
+		for (int i = 0; i < steps; i++)
+		{
+			// Only the two last steps are needed for drawing
+			this.input.beginTick(this.stepDuration);
+			this.simulation.step(this.stepDuration, i >= steps - 2);
+		}
+		
+		this.accumulator -= steps * this.stepDuration;
+		this.interpolation = this.accumulator / this.stepDuration;
+	}
+	
+	@Override
+	public void drawSelf(Graphics2D g2d)
+	{
+		this.snapshots.draw(g2d, this.interpolation);
+	}
+	
+	@Override
+	public int getDepth()
+	{
+		return DepthConstants.BACK;
+	}
+	
+	
+	// ACCESSORS	--------------------
+	
+	/**
+	 * @return How fast the game runs compared to the normal speed
+	 */
+	public double getSpeed()
+	{
+		return this.speed;
+	}
+	
+	/**
+	 * Changes the speed of the game. Values above 1 fast-forward the game by running 
+	 * multiple simulation steps per frame.
+	 * @param speed How fast the game runs compared to the normal speed (> 0)
+	 */
+	public void setSpeed(double speed)
+	{
+		this.speed = speed;
+	}
+}
@@ -0,0 +1,461 @@
+package dd_main;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import dd_gameplay.Beverage;
+import dd_gameplay.DolphinData;
+import dd_gameplay.GameRandom;
+import dd_gameplay.Glass;
+import dd_gameplay.GlassRelay;
+import dd_gameplay.WorldSnapshot;
+import genesis_event.HandlerRelay;
+import genesis_util.HelpMath;
+import genesis_util.Vector3D;
+
+/**
+ * StressScenario builds a table of any size and runs it without a window for a fixed
+ * amount of steps. Drinking and jumping are triggered automatically at a steady rate. At
+ * the end, the tick time percentiles and the throughput are printed. The scenario is
+ * configured with key=value pairs, either as command line arguments or in a properties
+ * file given with config=&lt;file&gt;. The arguments override the file.
+ * <p>
+ * The supported keys (and their defaults) are:
+ * <ul>
+ * <li>seed (0): The random seed
+ * <li>glasses (100): The amount of glasses
+ * <li>layout (grid): How the glasses are placed. One of grid, random or ring.
+ * <li>radius (80-150): The range of glass radii (in pixels)
+ * <li>fill (0.5-1): The range of initial glass fills
+ * <li>compact (false): Should the glasses store their dolphins in compact form
+ * <li>dolphins (10000): The amount of dolphins
+ * <li>beverages (beer:1,whiskey:1,champange:1): The weights of the dolphins' beverages
+ * <li>drunkness (uniform:0:50): The drunkness distribution. uniform:min:max,
+ * exponential:mean or constant:value.
+ * <li>drinks (0.5): How many glasses are drunk from each step (on average)
+ * <li>jumps (0.5): How many dolphins jump between glasses each step (on average)
+ * <li>warmup (500): How many steps are run before the measurement starts
+ * <li>steps (10000): How many steps are measured
+ * <li>threads (1): How many threads step the world. 0 for one per processor.
+ * <li>metrics (0): The local port the metrics are published to. 0 for no metrics server.
+ * <li>load (none): A world snapshot file the table is loaded from. The glass and dolphin 
+ * settings are ignored when a snapshot is loaded.
+ * <li>save (none): A file the world is saved to after the run
+ * </ul>
+ * @author agent
+ * @since 18.10.2026
+ */
+public class StressScenario
+{
+	// ATTRIBUTES	--------------------
+	
+	private static final String DEFAULTS = "seed=0 glasses=100 layout=grid radius=80-150 " + 
+			"fill=0.5-1 compact=false dolphins=10000 " +
+			"beverages=beer:1,whiskey:1,champange:1 drunkness=uniform:0:50 drinks=0.5 " +
+			"jumps=0.5 warmup=500 steps=10000 threads=1 metrics=0 load= save=";
+	
+	private Properties settings;
+	private List<Glass> glasses;
+	private double drinkDebt, jumpDebt;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new scenario
+	 * @param settings The settings that define the scenario. The missing settings use
+	 * the default values.
+	 */
+	public StressScenario(Properties settings)
+	{
+		this.settings = new Properties();
+		for (String pair : DEFAULTS.split(" "))
+		{
+			putSetting(this.settings, pair);
+		}
+		this.settings.putAll(settings);
+		
+		this.glasses = new ArrayList<>();
+		this.drinkDebt = 0;
+		this.jumpDebt = 0;
+	}
+	
+	
+	// MAIN METHOD	--------------------
+	
+	/**
+	 * Runs a stress scenario
+	 * @param args The scenario settings as key=value pairs
+	 */
+	public static void main(String[] args)
+	{
+		try
+		{
+			parse(args).run();
+		}
+		catch (IOException e)
+		{
+			System.err.println("Couldn't run the scenario: " + e.getMessage());
+		}
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * Parses a scenario from command line arguments
+	 * @param args The scenario settings as key=value pairs. config=&lt;file&gt; reads the
+	 * settings from a properties file.
+	 * @return The scenario described by the arguments
+	 * @throws IOException If the configuration file couldn't be read
+	 */
+	public static StressScenario parse(String[] args) throws IOException
+	{
+		Properties arguments = new Properties();
+		for (String arg : args)
+		{
+			putSetting(arguments, arg);
+		}
+		
+		Properties settings = new Properties();
+		String configFile = arguments.getProperty("config");
+		if (configFile != null)
+		{
+			try (InputStream input = new FileInputStream(configFile))
+			{
+				settings.load(input);
+			}
+		}
+		settings.putAll(arguments);
+		
+		return new StressScenario(settings);
+	}
+	
+	/**
+	 * Joins scenario arguments into a single string that can be split again with 
+	 * {@link #splitSettings(String)}
+	 * @param args The scenario settings as key=value pairs
+	 * @return The settings in a single string
+	 */
+	public static String joinSettings(List<String> args)
+	{
+		StringBuilder settings = new StringBuilder();
+		for (String arg : args)
+		{
+			if (settings.length() > 0)
+				settings.append('\n');
+			settings.append(arg);
+		}
+		return settings.toString();
+	}
+	
+	/**
+	 * Splits the settings joined with {@link #joinSettings(List)}
+	 * @param settings The settings in a single string
+	 * @return The scenario settings as key=value pairs
+	 */
+	public static String[] splitSettings(String settings)
+	{
+		if (settings.isEmpty())
+			return new String[0];
+		return settings.split("\n");
+	}
+	
+	/**
+	 * @return The random seed used in the scenario
+	 */
+	public long getSeed()
+	{
+		return Long.parseLong(getSetting("seed"));
+	}
+	
+	/**
+	 * @return The local port the metrics should be published to. 0 if there shouldn't be a 
+	 * metrics server.
+	 */
+	public int getMetricsPort()
+	{
+		return getInt("metrics");
+	}
+	
+	/**
+	 * Starts a metrics server if the scenario requires one
+	 * @return The server that was started. Null if no server was started.
+	 * @throws IOException If the server couldn't be started
+	 */
+	public MetricsServer startMetricsServer() throws IOException
+	{
+		int port = getMetricsPort();
+		if (port <= 0)
+			return null;
+		return new MetricsServer(port);
+	}
+	
+	/**
+	 * Creates the glasses and the dolphins described by the scenario. If the scenario 
+	 * names a world snapshot, the world is loaded from it instead.
+	 * @param handlers The handlers that will handle the objects. Should contain a
+	 * glassRelay.
+	 * @throws IOException If the world snapshot couldn't be loaded
+	 */
+	public void createScene(HandlerRelay handlers) throws IOException
+	{
+		String snapshotFile = getSetting("load");
+		if (!snapshotFile.isEmpty())
+		{
+			long startTime = System.nanoTime();
+			this.glasses.clear();
+			this.glasses.addAll(WorldSnapshot.load(Paths.get(snapshotFile), handlers));
+			System.out.println(String.format("Loaded %d glasses from %s in %.1f ms", 
+					this.glasses.size(), snapshotFile, (System.nanoTime() - startTime) / 
+					1000000.0));
+			return;
+		}
+		
+		SplittableRandom random = GameRandom.get();
+		int glassAmount = getInt("glasses");
+		double[] radii = getRange("radius");
+		double[] fills = getRange("fill");
+		boolean compact = Boolean.parseBoolean(getSetting("compact"));
+		String layout = getSetting("layout");
+		
+		// The glasses are placed so that they don't overlap (except in the random layout)
+		double spacing = radii[1] * 2 + 50;
+		int columns = (int) Math.ceil(Math.sqrt(glassAmount));
+		Beverage[] beverages = Beverage.values();
+		this.glasses.clear();
+		
+		for (int i = 0; i < glassAmount; i++)
+		{
+			Vector3D position;
+			if (layout.equals("random"))
+				position = new Vector3D(random.nextDouble() * columns * spacing, 
+						random.nextDouble() * columns * spacing);
+			else if (layout.equals("ring"))
+				position = HelpMath.lenDir(Math.max(spacing, 
+						glassAmount * spacing / (2 * Math.PI)), i * 360.0 / glassAmount);
+			else
+				position = new Vector3D((i % columns) * spacing, (i / columns) * spacing);
+			
+			int radius = (int) (radii[0] + random.nextDouble() * (radii[1] - radii[0]));
+			double fill = fills[0] + random.nextDouble() * (fills[1] - fills[0]);
+			this.glasses.add(new Glass(handlers, position, beverages[i % beverages.length], 
+					radius, fill, compact));
+		}
+		
+		// The dolphins are spread randomly between the glasses
+		if (this.glasses.isEmpty())
+			return;
+		double[] beverageWeights = getBeverageWeights();
+		int dolphinAmount = getInt("dolphins");
+		for (int i = 0; i < dolphinAmount; i++)
+		{
+			Glass glass = this.glasses.get(random.nextInt(this.glasses.size()));
+			DolphinData data = new DolphinData(pickBeverage(beverageWeights, random), 
+					pickDrunkness(random), 100);
+			Vector3D relativePos = HelpMath.lenDir(10 + random.nextDouble() * 
+					Math.max(0, glass.getContentRadius() - 10), random.nextDouble() * 360);
+			glass.addDolphin(data, relativePos, 2 + random.nextDouble() * 4);
+		}
+	}
+	
+	/**
+	 * Triggers the automatic drinking and jumping for a single step
+	 * @param handlers The handlers that handle the game objects
+	 */
+	public void performActions(HandlerRelay handlers)
+	{
+		if (this.glasses.size() < 2)
+			return;
+		
+		SplittableRandom random = GameRandom.get();
+		
+		this.drinkDebt += getDouble("drinks");
+		while (this.drinkDebt >= 1)
+		{
+			this.drinkDebt --;
+			Glass glass = this.glasses.get(random.nextInt(this.glasses.size()));
+			if (!glass.isEmpty())
+				glass.getHandler().drink(glass, handlers);
+		}
+		
+		this.jumpDebt += getDouble("jumps");
+		while (this.jumpDebt >= 1)
+		{
+			this.jumpDebt --;
+			int start = random.nextInt(this.glasses.size());
+			int end = (start + 1 + random.nextInt(this.glasses.size() - 1)) % 
+					this.glasses.size();
+			this.glasses.get(start).jumpOneTo(this.glasses.get(end));
+		}
+	}
+	
+	/**
+	 * Runs the scenario and prints the results
+	 * @throws IOException If the metrics server couldn't be started or the world couldn't 
+	 * be loaded or saved
+	 */
+	public void run() throws IOException
+	{
+		MetricsServer metricsServer = startMetricsServer();
+		
+		GameRandom.setSeed(getSeed());
+		
+		int threads = getInt("threads");
+		ForkJoinPool pool = null;
+		if (threads != 1)
+			pool = new ForkJoinPool(threads > 0 ? threads : 
+					Runtime.getRuntime().availableProcessors());
+		
+		HandlerRelay handlers = new HandlerRelay();
+		SimulationActorHandler actorHandler = new SimulationActorHandler(pool);
+		handlers.addHandler(actorHandler);
+		handlers.addHandler(new GlassRelay());
+		
+		createScene(handlers);
+		
+		int warmup = getInt("warmup");
+		int steps = getInt("steps");
+		long[] tickTimes = new long[steps];
+		
+		for (int i = 0; i < warmup + steps; i++)
+		{
+			long startTime = System.nanoTime();
+			performActions(handlers);
+			actorHandler.step(1);
+			long tickTime = System.nanoTime() - startTime;
+			
+			if (i >= warmup)
+				tickTimes[i - warmup] = tickTime;
+		}
+		
+		if (pool != null)
+			pool.shutdown();
+		
+		printResults(tickTimes);
+		
+		String saveFile = getSetting("save");
+		if (!saveFile.isEmpty())
+			actorHandler.saveWorld(Paths.get(saveFile));
+		
+		if (metricsServer != null)
+			metricsServer.stop();
+	}
+	
+	private void printResults(long[] tickTimes)
+	{
+		if (tickTimes.length == 0)
+			return;
+		
+		long total = 0;
+		for (long tickTime : tickTimes)
+		{
+			total += tickTime;
+		}
+		Arrays.sort(tickTimes);
+		
+		System.out.println(String.format("%d glasses, %d dolphins, %d steps", this.glasses.size(), 
+				getInt("dolphins"), tickTimes.length));
+		System.out.println(String.format("Tick time (ms): p50 %.3f, p90 %.3f, p99 %.3f, " + 
+				"p99.9 %.3f, max %.3f", getPercentile(tickTimes, 0.5) / 1000000.0,
+				getPercentile(tickTimes, 0.9) / 1000000.0,
+				getPercentile(tickTimes, 0.99) / 1000000.0,
+				getPercentile(tickTimes, 0.999) / 1000000.0,
+				tickTimes[tickTimes.length - 1] / 1000000.0));
+		System.out.println(String.format("Throughput: %.1f steps / second, %.0f dolphin " + 
+				"steps / second", tickTimes.length * 1000000000.0 / total,
+				(double) tickTimes.length * getInt("dolphins") * 1000000000.0 / total));
+	}
+	
+	private Beverage pickBeverage(double[] weights, SplittableRandom random)
+	{
+		double total = 0;
+		for (double weight : weights)
+		{
+			total += weight;
+		}
+		
+		double value = random.nextDouble() * total;
+		for (int i = 0; i < weights.length; i++)
+		{
+			value -= weights[i];
+			if (value < 0)
+				return Beverage.values()[i];
+		}
+		
+		return Beverage.values()[weights.length - 1];
+	}
+	
+	private int pickDrunkness(SplittableRandom random)
+	{
+		String[] parts = getSetting("drunkness").split(":");
+		switch (parts[0])
+		{
+			case "constant":
+				return Integer.parseInt(parts[1]);
+			case "exponential":
+				return (int) (-Math.log(1 - random.nextDouble()) * 
+						Double.parseDouble(parts[1]));
+			default:
+				int min = Integer.parseInt(parts[1]);
+				int max = Integer.parseInt(parts[2]);
+				return min + random.nextInt(max - min + 1);
+		}
+	}
+	
+	private double[] getBeverageWeights()
+	{
+		double[] weights = new double[Beverage.values().length];
+		for (String part : getSetting("beverages").split(","))
+		{
+			String[] nameAndWeight = part.split(":");
+			weights[Beverage.valueOf(nameAndWeight[0].trim().toUpperCase()).ordinal()] = 
+					Double.parseDouble(nameAndWeight[1]);
+		}
+		return weights;
+	}
+	
+	private double[] getRange(String key)
+	{
+		String[] parts = getSetting(key).split("-");
+		double min = Double.parseDouble(parts[0]);
+		double max = parts.length > 1 ? Double.parseDouble(parts[1]) : min;
+		return new double[] {min, max};
+	}
+	
+	private int getInt(String key)
+	{
+		return Integer.parseInt(getSetting(key));
+	}
+	
+	private double getDouble(String key)
+	{
+		return Double.parseDouble(getSetting(key));
+	}
+	
+	private String getSetting(String key)
+	{
+		return this.settings.getProperty(key).trim();
+	}
+	
+	private static long getPercentile(long[] sorted, double percentile)
+	{
+		int index = (int) Math.ceil(percentile * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+	}
+	
+	private static void putSetting(Properties settings, String pair)
+	{
+		int split = pair.indexOf('=');
+		if (split > 0)
+			settings.setProperty(pair.substring(0, split).trim(), pair.substring(split + 1));
+	}
+}
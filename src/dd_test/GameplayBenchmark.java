@@ -0,0 +1,440 @@
+package dd_test;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import dd_gameplay.Beverage;
+import dd_gameplay.Dolphin;
+import dd_gameplay.GameRandom;
+import dd_gameplay.Glass;
+import dd_gameplay.GlassRelay;
+import dd_gameplay.RenderSnapshot;
+import genesis_event.HandlerRelay;
+import genesis_util.Vector3D;
+
+/**
+ * This class measures the speed and the memory allocation of the most frequently used
+ * gameplay operations. Each benchmark is run with every combination of the given dolphin
+ * and glass amounts.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class GameplayBenchmark
+{
+	// ATTRIBUTES	--------------------
+	
+	private static final int WARMUP_BATCHES = 5;
+	private static final int MEASURED_BATCHES = 10;
+	private static final int GLASS_RADIUS = 150;
+	private static final int GLASS_SPACING = 400;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	private GameplayBenchmark()
+	{
+		// The interface is static
+	}
+	
+	
+	// MAIN METHOD	--------------------
+	
+	/**
+	 * Runs the benchmarks
+	 * @param args The dolphin amounts and the glass amounts as comma separated lists.
+	 * Optional, defaults to "100,1000,10000" and "10,100,1000"
+	 */
+	public static void main(String[] args)
+	{
+		int[] dolphinAmounts = parseAmounts(args.length > 0 ? args[0] : "100,1000,10000");
+		int[] glassAmounts = parseAmounts(args.length > 1 ? args[1] : "10,100,1000");
+		
+		List<Benchmark> benchmarks = new ArrayList<>();
+		benchmarks.add(new SwimmingActBenchmark());
+		benchmarks.add(new StoredSwimmingActBenchmark());
+		benchmarks.add(new JumpingActBenchmark());
+		benchmarks.add(new DrinkBenchmark());
+		benchmarks.add(new FindNextJumperBenchmark());
+		benchmarks.add(new GlassAtPositionBenchmark());
+		benchmarks.add(new ClosestGlassBenchmark());
+		benchmarks.add(new SnapshotRecordBenchmark());
+		benchmarks.add(new SnapshotDrawBenchmark());
+		
+		System.out.println(String.format("%-20s %10s %10s %15s %15s", "benchmark", "dolphins", 
+				"glasses", "ns/op", "bytes/op"));
+		for (Benchmark benchmark : benchmarks)
+		{
+			for (int dolphins : dolphinAmounts)
+			{
+				for (int glasses : glassAmounts)
+				{
+					benchmark.run(dolphins, glasses);
+				}
+			}
+		}
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	private static int[] parseAmounts(String list)
+	{
+		String[] parts = list.split(",");
+		int[] amounts = new int[parts.length];
+		for (int i = 0; i < parts.length; i++)
+		{
+			amounts[i] = Integer.parseInt(parts[i].trim());
+		}
+		return amounts;
+	}
+	
+	private static long getAllocatedBytes()
+	{
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean() 
+				).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	
+	
+	// SUBCLASSES	--------------------
+	
+	private static abstract class Benchmark
+	{
+		// ATTRIBUTES	----------------
+		
+		private String name;
+		private int operationsPerBatch;
+		private boolean compactStorage;
+		
+		protected HandlerRelay handlers;
+		protected GlassRelay relay;
+		protected List<Glass> glasses;
+		protected List<Dolphin> dolphins;
+		
+		
+		// CONSTRUCTOR	----------------
+		
+		public Benchmark(String name, int operationsPerBatch)
+		{
+			this(name, operationsPerBatch, false);
+		}
+		
+		public Benchmark(String name, int operationsPerBatch, boolean compactStorage)
+		{
+			this.name = name;
+			this.operationsPerBatch = operationsPerBatch;
+			this.compactStorage = compactStorage;
+		}
+		
+		
+		// ABSTRACT METHODS	------------
+		
+		protected abstract void operate();
+		
+		
+		// OTHER METHODS	------------
+		
+		/**
+		 * Prepares the objects used in a single batch of operations. By default creates a
+		 * table of full glasses and spreads the dolphins evenly between them.
+		 * @param dolphinAmount The amount of dolphins to create
+		 * @param glassAmount The amount of glasses to create
+		 */
+		protected void setUp(int dolphinAmount, int glassAmount)
+		{
+			GameRandom.setSeed(dolphinAmount * 31 + glassAmount);
+			
+			this.handlers = new HandlerRelay();
+			this.relay = new GlassRelay();
+			this.handlers.addHandler(this.relay);
+			
+			// The glasses are placed in a square
+			Beverage[] beverages = Beverage.values();
+			int columns = (int) Math.ceil(Math.sqrt(glassAmount));
+			this.glasses = new ArrayList<>(glassAmount);
+			for (int i = 0; i < glassAmount; i++)
+			{
+				this.glasses.add(new Glass(this.handlers, new Vector3D( 
+						(i % columns) * GLASS_SPACING, (i / columns) * GLASS_SPACING),
+						beverages[i % beverages.length], GLASS_RADIUS, 1, this.compactStorage));
+			}
+			
+			this.dolphins = new ArrayList<>(dolphinAmount);
+			for (int i = 0; i < dolphinAmount; i++)
+			{
+				this.dolphins.add(Dolphin.createDolphin(this.glasses.get(i % glassAmount)));
+			}
+		}
+		
+		/**
+		 * @return The width and height of the table used in the benchmark
+		 */
+		protected double getTableSize()
+		{
+			return Math.ceil(Math.sqrt(this.glasses.size())) * GLASS_SPACING;
+		}
+		
+		public void run(int dolphinAmount, int glassAmount)
+		{
+			long totalNanos = 0;
+			long totalBytes = 0;
+			
+			for (int batch = 0; batch < WARMUP_BATCHES + MEASURED_BATCHES; batch++)
+			{
+				setUp(dolphinAmount, glassAmount);
+				
+				long startBytes = getAllocatedBytes();
+				long startTime = System.nanoTime();
+				for (int i = 0; i < this.operationsPerBatch; i++)
+				{
+					operate();
+				}
+				long endTime = System.nanoTime();
+				long endBytes = getAllocatedBytes();
+				
+				if (batch >= WARMUP_BATCHES)
+				{
+					totalNanos += endTime - startTime;
+					totalBytes += endBytes - startBytes;
+				}
+			}
+			
+			long operations = (long) this.operationsPerBatch * MEASURED_BATCHES;
+			System.out.println(String.format("%-20s %10d %10d %15.1f %15.1f", this.name, 
+					dolphinAmount, glassAmount, totalNanos / (double) operations,
+					totalBytes / (double) operations));
+		}
+	}
+	
+	private static class SwimmingActBenchmark extends Benchmark
+	{
+		public SwimmingActBenchmark()
+		{
+			super("SwimmingDolphin.act", 100);
+		}
+		
+		@Override
+		protected void operate()
+		{
+			for (Dolphin dolphin : this.dolphins)
+			{
+				dolphin.act(1);
+			}
+		}
+	}
+	
+	private static class StoredSwimmingActBenchmark extends Benchmark
+	{
+		public StoredSwimmingActBenchmark()
+		{
+			super("DolphinStore.act", 100, true);
+		}
+		
+		@Override
+		protected void operate()
+		{
+			for (Glass glass : this.glasses)
+			{
+				glass.act(1);
+			}
+		}
+	}
+	
+	private static class JumpingActBenchmark extends Benchmark
+	{
+		private List<Dolphin> jumpers;
+		
+		public JumpingActBenchmark()
+		{
+			// The dolphins mustn't land during the batch
+			super("JumpingDolphin.act", 50);
+		}
+		
+		@Override
+		protected void setUp(int dolphinAmount, int glassAmount)
+		{
+			super.setUp(dolphinAmount, glassAmount);
+			
+			this.jumpers = new ArrayList<>(dolphinAmount);
+			for (int i = 0; i < this.dolphins.size(); i++)
+			{
+				// The swimming dolphins become jumping dolphins
+				Dolphin dolphin = this.dolphins.get(i);
+				dolphin.jumpTo(this.glasses.get((i + 1) % this.glasses.size()));
+				this.jumpers.add(dolphin);
+			}
+		}
+		
+		@Override
+		protected void operate()
+		{
+			for (Dolphin dolphin : this.jumpers)
+			{
+				dolphin.act(1);
+			}
+		}
+	}
+	
+	private static class DrinkBenchmark extends Benchmark
+	{
+		public DrinkBenchmark()
+		{
+			super("GlassHandler.drink", 1);
+		}
+		
+		@Override
+		protected void operate()
+		{
+			for (Glass glass : this.glasses)
+			{
+				if (!glass.isEmpty())
+					glass.getHandler().drink(glass, this.handlers);
+			}
+		}
+	}
+	
+	private static class FindNextJumperBenchmark extends Benchmark
+	{
+		public FindNextJumperBenchmark()
+		{
+			super("findNextJumper", 100);
+		}
+		
+		@Override
+		protected void operate()
+		{
+			for (int i = 0; i < this.glasses.size(); i++)
+			{
+				this.glasses.get(i).getHandler().findNextJumper( 
+						this.glasses.get((i + 1) % this.glasses.size()));
+			}
+		}
+	}
+	
+	private static abstract class RelayQueryBenchmark extends Benchmark
+	{
+		protected List<Vector3D> points;
+		
+		public RelayQueryBenchmark(String name)
+		{
+			super(name, 10);
+		}
+		
+		@Override
+		protected void setUp(int dolphinAmount, int glassAmount)
+		{
+			super.setUp(dolphinAmount, glassAmount);
+			
+			// Queries random points around the table
+			Random random = new Random(glassAmount);
+			double size = getTableSize();
+			this.points = new ArrayList<>(1000);
+			for (int i = 0; i < 1000; i++)
+			{
+				this.points.add(new Vector3D(random.nextDouble() * size, 
+						random.nextDouble() * size));
+			}
+		}
+	}
+	
+	private static class GlassAtPositionBenchmark extends RelayQueryBenchmark
+	{
+		public GlassAtPositionBenchmark()
+		{
+			super("getGlassAtPosition");
+		}
+		
+		@Override
+		protected void operate()
+		{
+			for (Vector3D point : this.points)
+			{
+				this.relay.getGlassAtPosition(point);
+			}
+		}
+	}
+	
+	private static class ClosestGlassBenchmark extends RelayQueryBenchmark
+	{
+		public ClosestGlassBenchmark()
+		{
+			super("getClosestGlass");
+		}
+		
+		@Override
+		protected void operate()
+		{
+			for (Vector3D point : this.points)
+			{
+				this.relay.getClosestGlass(point, false);
+			}
+		}
+	}
+	
+	private static class SnapshotRecordBenchmark extends Benchmark
+	{
+		private RenderSnapshot snapshot;
+		
+		public SnapshotRecordBenchmark()
+		{
+			super("RenderSnapshot.add", 10);
+			
+			this.snapshot = new RenderSnapshot();
+		}
+		
+		@Override
+		protected void operate()
+		{
+			// All the dolphins swim, so they are recorded along with their glasses
+			this.snapshot.clear();
+			for (Glass glass : this.glasses)
+			{
+				this.snapshot.addGlass(glass);
+			}
+		}
+	}
+	
+	private static class SnapshotDrawBenchmark extends Benchmark
+	{
+		private BufferedImage image;
+		private Graphics2D g2d;
+		private RenderSnapshot snapshot, previous;
+		
+		public SnapshotDrawBenchmark()
+		{
+			super("RenderSnapshot.draw", 10);
+			
+			this.image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+			this.g2d = this.image.createGraphics();
+			this.g2d.translate(128, 128);
+			this.snapshot = new RenderSnapshot();
+			this.previous = new RenderSnapshot();
+		}
+		
+		@Override
+		protected void setUp(int dolphinAmount, int glassAmount)
+		{
+			super.setUp(dolphinAmount, glassAmount);
+			
+			// The dolphins are drawn halfway between two ticks, like in the game
+			this.previous.clear();
+			this.snapshot.clear();
+			for (Glass glass : this.glasses)
+			{
+				this.previous.addGlass(glass);
+				glass.act(1);
+				glass.getHandler().stepDolphins(1);
+				this.snapshot.addGlass(glass);
+			}
+		}
+		
+		@Override
+		protected void operate()
+		{
+			this.snapshot.draw(this.g2d, this.previous, 0.5);
+		}
+	}
+}